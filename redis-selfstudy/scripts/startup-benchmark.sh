@@ -0,0 +1,89 @@
+#!/usr/bin/env bash
+# 시작 시간 벤치마크 (docker-compose 기준)
+#
+# 반복마다 앱 컨테이너를 새로 띄우고 두 가지를 잰다.
+# - ready   : docker compose up 부터 ApplicationReadyEvent 로그(FastStartRunner.READY_MARKER)까지
+#             (첫 HTTP 응답은 ApplicationRunner(fast-start 예열)가 끝나기 전에도 올 수 있으므로 쓰지 않는다)
+# - p99-fast: docker compose up 부터, 연속 WINDOW개 요청이 모두 "정상 상태 p99" 이하로 들어오기 시작한 시점까지
+#   정상 상태 p99 = 모든 반복에서 뒤쪽 절반 요청(충분히 예열된 구간)의 p99
+#   요청은 curl 프로세스 하나가 keep-alive 연결 하나로 순서대로 보낸다. (요청마다 curl을 띄우면 프로세스/연결 비용이 섞인다)
+#   각 요청의 시작 시점 = curl 시작 시점 + 앞선 요청들의 time_total 합
+#
+# 사용: ./scripts/startup-benchmark.sh [반복 횟수]
+#   APP_FASTSTART_ENABLED=false ./scripts/startup-benchmark.sh 5   # fast-start 끄고 비교
+#
+# 환경 변수
+#   REQUESTS : 반복당 요청 수 (기본 1000)
+#   WINDOW   : p99-fast 판정 연속 요청 수 (기본 20)
+#   BASE_URL : 앱 주소 (기본 http://localhost:28080)
+set -euo pipefail
+
+cd "$(dirname "$0")/.."
+
+RUNS="${1:-5}"
+REQUESTS="${REQUESTS:-1000}"
+WINDOW="${WINDOW:-20}"
+BASE_URL="${BASE_URL:-http://localhost:28080}"
+APP_SERVICE="redis-study-app"
+RESULT_DIR="$(mktemp -d)"
+READY_MARKER="redis-selfstudy ready" # FastStartRunner.READY_MARKER
+export APP_FASTSTART_ENABLED="${APP_FASTSTART_ENABLED:-true}"
+
+now_ms() {
+  echo $(( $(date +%s%N) / 1000000 ))
+}
+
+echo "fast-start=${APP_FASTSTART_ENABLED}, runs=${RUNS}, requests=${REQUESTS}, window=${WINDOW}"
+docker compose up -d redis-study-redis --wait >/dev/null
+
+for run in $(seq 1 "$RUNS"); do
+  docker compose rm -sf "$APP_SERVICE" >/dev/null 2>&1 || true
+  docker compose exec -T redis-study-redis redis-cli FLUSHALL >/dev/null
+
+  started=$(now_ms)
+  docker compose up -d --no-deps "$APP_SERVICE" >/dev/null
+
+  # 1. ready: ApplicationReadyEvent 로그
+  until docker compose logs --no-log-prefix "$APP_SERVICE" 2>/dev/null | grep -F "$READY_MARKER" >/dev/null; do # -q는 조기 종료로 pipefail에 걸림
+    sleep 0.05
+  done
+  ready=$(( $(now_ms) - started ))
+  echo "$ready" > "$RESULT_DIR/ready-$run"
+
+  # 2. 상품 하나를 만들고 같은 상품을 반복 조회 (캐시 히트 경로)
+  id=$(curl -s -X POST "$BASE_URL/products" -H 'Content-Type: application/json' \
+        -d '{"name":"startup-benchmark","price":1000}' | sed -E 's/.*"id":([0-9]+).*/\1/')
+
+  # 요청마다 "시작 시점(ms, compose up 기준) 지연(초)" 기록
+  for _ in $(seq 1 "$REQUESTS"); do
+    printf 'url = "%s"\noutput = "/dev/null"\n' "$BASE_URL/products/$id"
+  done > "$RESULT_DIR/curl-$run"
+  curl_started=$(( $(now_ms) - started ))
+  curl -s -K "$RESULT_DIR/curl-$run" -w '%{time_total}\n' \
+    | awk -v offset="$curl_started" '{ printf "%d %s\n", offset + elapsed * 1000, $1; elapsed += $1 }' \
+    > "$RESULT_DIR/requests-$run"
+  echo "run $run: ready ${ready}ms"
+done
+
+# 3. 정상 상태 p99 (각 반복의 뒤쪽 절반 요청)
+steady_p99=$(for run in $(seq 1 "$RUNS"); do
+    tail -n $(( REQUESTS / 2 )) "$RESULT_DIR/requests-$run"
+  done | awk '{ print $2 * 1000 }' | sort -n | awk '{ v[NR] = $1 } END { i = int(NR * 0.99); if (i < 1) i = 1; print v[i] }')
+echo "steady-state p99: ${steady_p99}ms"
+
+# 4. 반복별 p99-fast 시점
+for run in $(seq 1 "$RUNS"); do
+  fast=$(awk -v limit="$steady_p99" -v window="$WINDOW" '
+    { latency = $2 * 1000
+      if (latency <= limit) { if (streak == 0) first = $1; streak++ } else { streak = 0 }
+      if (streak == window) { print first; found = 1; exit } }
+    END { if (!found) print "-" }' "$RESULT_DIR/requests-$run")
+  echo "run $run: ready $(cat "$RESULT_DIR/ready-$run")ms, p99-fast ${fast}ms"
+  echo "$(cat "$RESULT_DIR/ready-$run") $fast" >> "$RESULT_DIR/summary"
+done
+
+# 5. 중앙값
+awk '{ print $1 }' "$RESULT_DIR/summary" | sort -n | awk '{ v[NR] = $1 } END { print "median ready: " v[int((NR + 1) / 2)] "ms" }'
+awk '$2 != "-" { print $2 }' "$RESULT_DIR/summary" | sort -n | awk '{ v[NR] = $1 } END { if (NR) print "median p99-fast: " v[int((NR + 1) / 2)] "ms" }'
+
+rm -rf "$RESULT_DIR"
@@ -0,0 +1,136 @@
+package daiseek.redis_selfstudy.benchmark;
+
+import daiseek.redis_selfstudy.benchmark.resp.RespServer;
+import daiseek.redis_selfstudy.config.ProductKeyCodec;
+import daiseek.redis_selfstudy.config.RedisConfig;
+import daiseek.redis_selfstudy.product.Product;
+import daiseek.redis_selfstudy.product.repository.ProductIndexRepository;
+import daiseek.redis_selfstudy.product.repository.ProductRepositoryV1;
+import daiseek.redis_selfstudy.product.service.ProductServiceV1;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.cache.Cache;
+import org.springframework.data.redis.cache.RedisCacheManager;
+import org.springframework.data.redis.connection.lettuce.LettuceConnectionFactory;
+import org.springframework.data.redis.core.RedisTemplate;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.serializer.RedisSerializer;
+import org.springframework.data.redis.serializer.SerializationException;
+
+import java.io.OutputStream;
+import java.io.PrintStream;
+import java.util.Optional;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * getProductById(캐시 히트) 한 번당 할당 바이트 비교 - 키 경로만 다르고 나머지(Lettuce, 값 역직렬화)는 같다.
+ *
+ * 실행: ./gradlew jmh -Pjmh.includes=ProductKeyAllocationBenchmark -Pjmh.profilers=gc
+ * gc 프로파일러의 gc.alloc.rate.norm 값이 호출 1회당 할당 바이트 수다. 두 keyPath의 차이가 키 인코딩에서 줄어든 할당이다.
+ *
+ * - keyPath
+ *   stringKey : 코덱 도입 전 방식. "product:" + id -> StringRedisSerializer (RedisTemplate 키 직렬화기로 재현)
+ *   codec     : ProductKeyCodec (RedisConfig.productRedisTemplate)
+ * - serviceV1Hit        : ProductServiceV1.getProductById (V1~V3, V5와 같은 product:{id} 키 경로)
+ * - annotationCacheHit  : ProductRedisCache.get(id) - V4(@Cacheable)가 캐시 히트 때 타는 경로 (keyPath와 상관없이 항상 코덱)
+ *
+ * Redis는 인프로세스 RESP 대역(지연 없음)을 쓴다. 서비스의 System.out 로그는 측정 동안 버린다.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class ProductKeyAllocationBenchmark {
+
+    private static final int PRODUCT_COUNT = 1_000;
+
+    @Param({"stringKey", "codec"})
+    public String keyPath;
+
+    private RespServer server;
+    private LettuceConnectionFactory connectionFactory;
+    private ProductServiceV1 productService;
+    private Cache productCache;
+    private PrintStream originalOut;
+    private long nextId;
+
+    /**
+     * 코덱 도입 전 키 경로: 요청마다 "product:" + id 문자열을 만들고 UTF-8로 인코딩
+     */
+    private static final RedisSerializer<Long> STRING_CONCAT_KEY = new RedisSerializer<>() {
+        @Override
+        public byte[] serialize(Long id) throws SerializationException {
+            return id == null ? null : RedisSerializer.string().serialize(ProductKeyCodec.PREFIX + id);
+        }
+
+        @Override
+        public Long deserialize(byte[] bytes) throws SerializationException {
+            return bytes == null ? null : ProductKeyCodec.decode(bytes);
+        }
+    };
+
+    @Setup(Level.Trial)
+    public void setUp() throws Exception {
+        originalOut = System.out;
+        System.setOut(new PrintStream(OutputStream.nullOutputStream()));
+
+        server = RespServer.start(0, 42L);
+        RedisConfig redisConfig = new RedisConfig();
+        connectionFactory = (LettuceConnectionFactory) redisConfig.redisConnectionFactory("127.0.0.1", server.port(), false);
+        if (!connectionFactory.isRunning()) {
+            connectionFactory.start();
+        }
+
+        RedisTemplate<Long, Object> productRedisTemplate = redisConfig.productRedisTemplate(connectionFactory);
+        if ("stringKey".equals(keyPath)) {
+            productRedisTemplate.setKeySerializer(STRING_CONCAT_KEY);
+        }
+        ProductRepositoryV1 productRepository = new ProductRepositoryV1();
+        productService = new ProductServiceV1(productRepository, productRedisTemplate,
+                new ProductIndexRepository(new StringRedisTemplate(connectionFactory)));
+
+        RedisCacheManager cacheManager = redisConfig.cacheManager(connectionFactory, redisConfig.cacheConfiguration());
+        cacheManager.afterPropertiesSet();
+        productCache = cacheManager.getCache("product");
+
+        for (long id = 1; id <= PRODUCT_COUNT; id++) {
+            Product product = productRepository.save(new Product(null, "product-" + id, (int) (id * 100)));
+            productRedisTemplate.opsForValue().set(product.getId(), product, 1, TimeUnit.HOURS);
+            productCache.put(product.getId(), product);
+        }
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws Exception {
+        connectionFactory.destroy();
+        server.close();
+        System.setOut(originalOut);
+    }
+
+    @Benchmark
+    public Optional<Product> serviceV1Hit() {
+        return productService.getProductById(nextId());
+    }
+
+    @Benchmark
+    public Cache.ValueWrapper annotationCacheHit() {
+        return productCache.get(nextId());
+    }
+
+    private long nextId() {
+        return nextId++ % PRODUCT_COUNT + 1;
+    }
+}
@@ -0,0 +1,56 @@
+package daiseek.redis_selfstudy.benchmark;
+
+import daiseek.redis_selfstudy.config.ProductKeyCodec;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.data.redis.serializer.StringRedisSerializer;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 상품 키 인코딩 비용 비교 (getProductById 한 번당 키 경로)
+ *
+ * 실행: ./gradlew jmh -Pjmh.includes=ProductKeyEncodingBenchmark -Pjmh.profilers=gc
+ * gc 프로파일러의 gc.alloc.rate.norm 값이 호출 1회당 할당 바이트 수다.
+ *
+ * - stringConcat : 기존 방식. "product:" + id -> StringRedisSerializer.serialize
+ * - codec        : ProductKeyCodec.encode(id)
+ * id가 캐시 범위(0 ~ 4095)면 codec은 할당이 없어야 하고, 범위 밖이면 byte[] 하나만 할당해야 한다.
+ * 키 인코딩만 따로 잰다. getProductById 한 번당 할당 차이는 ProductKeyAllocationBenchmark로 본다.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class ProductKeyEncodingBenchmark {
+
+    @Param({"42", "1234567"}) // 캐시 범위 안 / 밖
+    public long id;
+
+    private final StringRedisSerializer stringRedisSerializer = new StringRedisSerializer();
+
+    @Benchmark
+    public byte[] stringConcat() {
+        return stringRedisSerializer.serialize("product:" + id);
+    }
+
+    @Benchmark
+    public byte[] codec() {
+        return ProductKeyCodec.encode(id);
+    }
+
+    @Benchmark
+    public long codecRoundTrip() {
+        return ProductKeyCodec.decode(ProductKeyCodec.encode(id));
+    }
+}
@@ -0,0 +1,144 @@
+package daiseek.redis_selfstudy.benchmark;
+
+import daiseek.redis_selfstudy.config.ProductKeyCodec;
+import daiseek.redis_selfstudy.config.RedisConfig;
+import daiseek.redis_selfstudy.product.Product;
+import org.springframework.data.redis.connection.RedisConnection;
+import org.springframework.data.redis.connection.RedisConnectionFactory;
+import org.springframework.data.redis.connection.lettuce.LettuceConnectionFactory;
+import org.springframework.data.redis.core.RedisCallback;
+import org.springframework.data.redis.core.RedisTemplate;
+import org.springframework.data.redis.serializer.RedisSerializer;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Properties;
+
+/**
+ * 상품 저장 방식별 Redis 메모리 사용량 리포트 (JMH 벤치마크가 아닌 main 실행)
+ * 인프로세스 대역(RespServer)은 메모리를 재지 않으므로 실제 Redis가 필요하다.
+ *
+ * 실행: docker compose up -d redis-study-redis 후
+ *   java -cp build/libs/redis-selfstudy-0.0.1-SNAPSHOT-jmh.jar daiseek.redis_selfstudy.benchmark.ProductMemoryReport [host] [port] [상품 수]
+ *   (기본값: 127.0.0.1 26379 100000)
+ *
+ * 주의: 측정 전후로 DB 15를 FLUSHDB 한다. used_memory는 서버 전체 값이라 측정 중 다른 쓰기가 없어야 한다.
+ *
+ * 비교 대상
+ * - string         : product:{id} 키 하나에 GenericJackson2Json 값(@class 포함) + 키별 TTL (V1~V3, V5 그대로)
+ * - string-compact : product:{id} 키 하나에 버킷과 같은 압축 JSON 값 + 키별 TTL
+ * - bucket         : product:b:{id/1000} Hash, 필드별 HEXPIRE (V6 PER_FIELD)
+ * - bucket-ttl     : product:b:{id/1000} Hash, 버킷 키 EXPIRE (V6 PER_BUCKET)
+ * 키 구조 차이만 보려면 string-compact와 bucket을 비교한다. (string과 bucket은 값 직렬화 형식도 다름)
+ */
+public class ProductMemoryReport {
+
+    private static final int DATABASE = 15;
+    private static final int BATCH_SIZE = 1_000;
+    private static final int BUCKET_SIZE = 1_000;
+    private static final long TTL_SECONDS = 300;
+
+    public static void main(String[] args) throws Exception {
+        String host = args.length > 0 ? args[0] : "127.0.0.1";
+        int port = args.length > 1 ? Integer.parseInt(args[1]) : 26379;
+        int productCount = args.length > 2 ? Integer.parseInt(args[2]) : 100_000;
+
+        RedisConfig redisConfig = new RedisConfig();
+        LettuceConnectionFactory connectionFactory = (LettuceConnectionFactory) redisConfig.redisConnectionFactory(host, port, false);
+        connectionFactory.setDatabase(DATABASE);
+        if (!connectionFactory.isRunning()) {
+            connectionFactory.start();
+        }
+
+        try {
+            RedisTemplate<Long, Object> productRedisTemplate = redisConfig.productRedisTemplate(connectionFactory);
+            RedisTemplate<String, Product> productBucketRedisTemplate = redisConfig.productBucketRedisTemplate(connectionFactory);
+
+            try (RedisConnection connection = connectionFactory.getConnection()) {
+                Properties config = connection.serverCommands().getConfig("hash-max-listpack-*");
+                System.out.println("redis " + host + ":" + port + " db " + DATABASE + ", 상품 " + productCount + "개, " + config);
+            }
+            System.out.printf("%-15s %14s %16s %22s%n", "layout", "used_memory", "bytes/product", "sample");
+            RedisSerializer<Object> compactSerializer = serializer(productBucketRedisTemplate.getHashValueSerializer());
+
+            report(connectionFactory, "string", productCount, productRedisTemplate, (connection, product) -> {
+                byte[] value = serializer(productRedisTemplate.getValueSerializer()).serialize(product);
+                connection.stringCommands().setEx(ProductKeyCodec.encode(product.getId()), TTL_SECONDS, value);
+            }, ProductKeyCodec.encode(1L));
+
+            report(connectionFactory, "string-compact", productCount, productRedisTemplate, (connection, product) -> {
+                connection.stringCommands().setEx(ProductKeyCodec.encode(product.getId()), TTL_SECONDS, compactSerializer.serialize(product));
+            }, ProductKeyCodec.encode(1L));
+
+            report(connectionFactory, "bucket", productCount, productBucketRedisTemplate, (connection, product) -> {
+                byte[] key = bucketKey(product.getId());
+                byte[] field = ascii(product.getId());
+                connection.hashCommands().hSet(key, field, compactSerializer.serialize(product));
+                connection.execute("HEXPIRE", key, ascii(TTL_SECONDS), ascii("FIELDS"), ascii(1), field);
+            }, bucketKey(1L));
+
+            report(connectionFactory, "bucket-ttl", productCount, productBucketRedisTemplate, (connection, product) -> {
+                byte[] key = bucketKey(product.getId());
+                connection.hashCommands().hSet(key, ascii(product.getId()), compactSerializer.serialize(product));
+                connection.keyCommands().expire(key, TTL_SECONDS);
+            }, bucketKey(1L));
+        } finally {
+            try (RedisConnection connection = connectionFactory.getConnection()) {
+                connection.serverCommands().flushDb();
+            }
+            connectionFactory.destroy();
+        }
+    }
+
+    @FunctionalInterface
+    private interface ProductWriter {
+        void write(RedisConnection connection, Product product);
+    }
+
+    private static void report(RedisConnectionFactory connectionFactory, String layout, int productCount,
+                               RedisTemplate<?, ?> template, ProductWriter writer, byte[] sampleKey) {
+        long before;
+        try (RedisConnection connection = connectionFactory.getConnection()) {
+            connection.serverCommands().flushDb();
+            before = usedMemory(connection);
+        }
+
+        for (int start = 1; start <= productCount; start += BATCH_SIZE) {
+            int from = start;
+            int to = Math.min(start + BATCH_SIZE - 1, productCount);
+            template.executePipelined((RedisCallback<Object>) connection -> {
+                for (long id = from; id <= to; id++) {
+                    Product product = new Product(id, "product-" + id, (int) (id % 100_000) * 100);
+                    product.setVersion(id);
+                    writer.write(connection, product);
+                }
+                return null;
+            });
+        }
+
+        try (RedisConnection connection = connectionFactory.getConnection()) {
+            long after = usedMemory(connection);
+            Object sampleUsage = connection.execute("MEMORY", ascii("USAGE"), sampleKey);
+            String encoding = String.valueOf(connection.keyCommands().encodingOf(sampleKey));
+            System.out.printf("%-15s %14d %16.1f %22s%n", layout, after - before, (double) (after - before) / productCount,
+                    sampleUsage + "B " + encoding.toLowerCase());
+        }
+    }
+
+    private static long usedMemory(RedisConnection connection) {
+        Properties memory = connection.serverCommands().info("memory");
+        return Long.parseLong(memory.getProperty("used_memory"));
+    }
+
+    @SuppressWarnings("unchecked")
+    private static <T> RedisSerializer<Object> serializer(RedisSerializer<T> serializer) {
+        return (RedisSerializer<Object>) serializer;
+    }
+
+    private static byte[] bucketKey(long id) {
+        return ("product:b:" + id / BUCKET_SIZE).getBytes(StandardCharsets.US_ASCII);
+    }
+
+    private static byte[] ascii(Object value) {
+        return String.valueOf(value).getBytes(StandardCharsets.US_ASCII);
+    }
+}
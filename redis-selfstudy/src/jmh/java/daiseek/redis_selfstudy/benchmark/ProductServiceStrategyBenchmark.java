@@ -0,0 +1,178 @@
+package daiseek.redis_selfstudy.benchmark;
+
+import daiseek.redis_selfstudy.benchmark.resp.LatencyDistribution;
+import daiseek.redis_selfstudy.benchmark.resp.ProjectScripts;
+import daiseek.redis_selfstudy.benchmark.resp.RespServer;
+import daiseek.redis_selfstudy.config.ProductKeyCodec;
+import daiseek.redis_selfstudy.config.RedisConfig;
+import daiseek.redis_selfstudy.product.Product;
+import daiseek.redis_selfstudy.product.repository.ProductIndexRepository;
+import daiseek.redis_selfstudy.product.repository.ProductRepositoryV1;
+import daiseek.redis_selfstudy.product.service.ProductService;
+import daiseek.redis_selfstudy.product.service.ProductServiceV1;
+import daiseek.redis_selfstudy.product.service.ProductServiceV2;
+import daiseek.redis_selfstudy.product.service.ProductServiceV3;
+import daiseek.redis_selfstudy.product.service.ProductServiceV5;
+import daiseek.redis_selfstudy.product.service.ProductServiceV6;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.data.redis.connection.RedisConnectionFactory;
+import org.springframework.data.redis.connection.lettuce.LettuceConnectionFactory;
+import org.springframework.data.redis.core.RedisTemplate;
+import org.springframework.data.redis.core.StringRedisTemplate;
+
+import java.io.OutputStream;
+import java.io.PrintStream;
+import java.time.Duration;
+import java.util.Optional;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 캐싱 전략별 getProductById(캐시 히트) 지연 비교
+ * docker-compose의 redis 컨테이너 대신 인프로세스 RESP 대역(RespServer)에 RedisConfig의 Lettuce 클라이언트를 그대로 붙인다.
+ *
+ * 실행: ./gradlew jmh -Pjmh.includes=ProductServiceStrategyBenchmark
+ *
+ * - strategy : V1(Cache-Aside), V2(Write-Through), V3(Write-Back), V5(버전 CAS), V6(버킷 Hash)
+ *   V2compact - V2와 같은 product:{id} 키에 V6 버킷과 같은 압축 JSON 값(@class 없음)을 저장
+ *   V4(@Cacheable)는 Spring 프록시가 있어야 캐시가 동작하므로 여기서는 제외한다.
+ * - latency  : 대역 서버의 명령 지연 프로파일 (시드 고정이라 실행마다 같은 지연 순서가 재현된다)
+ *   none      - 지연 없음 (클라이언트/직렬화 비용만)
+ *   lan       - 고정 200us (같은 AZ 네트워크 왕복 정도)
+ *   lognormal - 중앙값 200us, 1% 확률로 5ms 꼬리 (p99가 튀는 상황)
+ *
+ * 실제 Redis로 재려면 -Dbenchmark.redis.port=26379 (docker-compose의 redis) 를 넘긴다. 이때 latency 프로파일은 무시된다.
+ * 기존 키 방식(product:{id}) 대 버킷 Hash(product:b:{id/1000}) 조회 지연은 V2compact와 V6로 비교한다.
+ * (V2는 GenericJackson2Json 값이라 V6와 비교하면 키 구조 차이에 값 직렬화 차이가 섞인다)
+ *
+ * 상품은 캐시에 미리 채워 두므로 측정 중에는 ProductRepositoryV1.findById(500ms)가 호출되지 않는다.
+ * 서비스의 System.out 로그는 측정을 왜곡하므로 실행 동안 버린다.
+ */
+@BenchmarkMode({Mode.AverageTime, Mode.SampleTime})
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class ProductServiceStrategyBenchmark {
+
+    private static final int PRODUCT_COUNT = 1_000;
+
+    @Param({"V1", "V2", "V2compact", "V3", "V5", "V6"})
+    public String strategy;
+
+    @Param({"none", "lan", "lognormal"})
+    public String latency;
+
+    private RespServer server;
+    private LettuceConnectionFactory connectionFactory;
+    private ProductService productService;
+    private PrintStream originalOut;
+    private long nextId;
+
+    @Setup(Level.Trial)
+    public void setUp() throws Exception {
+        originalOut = System.out;
+        System.setOut(new PrintStream(OutputStream.nullOutputStream()));
+
+        int port = Integer.getInteger("benchmark.redis.port", 0);
+        if (port == 0) {
+            server = RespServer.start(0, 42L);
+            ProjectScripts.registerAll(server.scripts());
+            server.defaultLatency(latencyProfile(latency));
+            port = server.port();
+        }
+
+        RedisConfig redisConfig = new RedisConfig();
+        RedisConnectionFactory factory = redisConfig.redisConnectionFactory("127.0.0.1", port, false);
+        connectionFactory = (LettuceConnectionFactory) factory;
+        if (!connectionFactory.isRunning()) {
+            connectionFactory.start();
+        }
+
+        RedisTemplate<String, Object> redisTemplate = redisConfig.redisTemplate(connectionFactory);
+        RedisTemplate<String, Product> productBucketRedisTemplate = redisConfig.productBucketRedisTemplate(connectionFactory);
+        RedisTemplate<Long, Object> productRedisTemplate = "V2compact".equals(strategy)
+                ? compactProductRedisTemplate(connectionFactory, productBucketRedisTemplate)
+                : redisConfig.productRedisTemplate(connectionFactory);
+        StringRedisTemplate stringRedisTemplate = new StringRedisTemplate(connectionFactory);
+        ProductRepositoryV1 productRepository = new ProductRepositoryV1();
+        ProductIndexRepository productIndexRepository = new ProductIndexRepository(stringRedisTemplate);
+
+        productService = switch (strategy) {
+            case "V1" -> new ProductServiceV1(productRepository, productRedisTemplate, productIndexRepository);
+            case "V2", "V2compact" -> new ProductServiceV2(productRepository, productRedisTemplate, productIndexRepository);
+            case "V3" -> {
+                ProductServiceV3 serviceV3 = new ProductServiceV3(productRepository, productRedisTemplate, productIndexRepository);
+                serviceV3.init();
+                yield serviceV3;
+            }
+            case "V5" -> new ProductServiceV5(productRepository, redisTemplate, productIndexRepository);
+            case "V6" -> new ProductServiceV6(productRepository, productBucketRedisTemplate, productIndexRepository,
+                    1000, ProductServiceV6.ExpiryPolicy.PER_FIELD);
+            default -> throw new IllegalArgumentException("알 수 없는 전략: " + strategy);
+        };
+
+        // 저장소와 캐시를 직접 채운다. (product:{id} 키와 값 직렬화는 V1~V5가 모두 같고, V6는 버킷 Hash)
+        for (long id = 1; id <= PRODUCT_COUNT; id++) {
+            Product product = productRepository.save(new Product(null, "product-" + id, (int) (id * 100)));
+            if (productService instanceof ProductServiceV6 serviceV6) {
+                productBucketRedisTemplate.opsForHash().put(serviceV6.bucketKey(product.getId()), product.getId(), product);
+            } else {
+                productRedisTemplate.opsForValue().set(product.getId(), product, 1, TimeUnit.HOURS);
+            }
+        }
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws Exception {
+        if (productService instanceof ProductServiceV3 serviceV3) {
+            serviceV3.shutdown();
+        }
+        connectionFactory.destroy();
+        if (server != null) {
+            server.close();
+        }
+        System.setOut(originalOut);
+    }
+
+    @Benchmark
+    public Optional<Product> getProductByIdHit() {
+        long id = nextId++ % PRODUCT_COUNT + 1;
+        return productService.getProductById(id);
+    }
+
+    /**
+     * productRedisTemplate과 같은 키 코덱, 값은 버킷 템플릿의 압축 JSON 직렬화기
+     */
+    private static RedisTemplate<Long, Object> compactProductRedisTemplate(RedisConnectionFactory connectionFactory,
+                                                                          RedisTemplate<String, Product> productBucketRedisTemplate) {
+        RedisTemplate<Long, Object> template = new RedisTemplate<>();
+        template.setConnectionFactory(connectionFactory);
+        template.setKeySerializer(ProductKeyCodec.INSTANCE);
+        template.setValueSerializer(productBucketRedisTemplate.getHashValueSerializer());
+        template.afterPropertiesSet();
+        return template;
+    }
+
+    private static LatencyDistribution latencyProfile(String name) {
+        return switch (name) {
+            case "none" -> LatencyDistribution.none();
+            case "lan" -> LatencyDistribution.fixed(Duration.ofMicros(200));
+            case "lognormal" -> LatencyDistribution.logNormal(Duration.ofMicros(200), 0.5)
+                    .withTail(0.01, LatencyDistribution.fixed(Duration.ofMillis(5)));
+            default -> throw new IllegalArgumentException("알 수 없는 지연 프로파일: " + name);
+        };
+    }
+}
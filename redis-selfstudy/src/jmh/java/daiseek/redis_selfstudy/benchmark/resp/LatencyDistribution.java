@@ -0,0 +1,58 @@
+package daiseek.redis_selfstudy.benchmark.resp;
+
+import java.time.Duration;
+import java.util.Random;
+
+/**
+ * 명령/패킷 지연 분포
+ * 서버 루프 스레드의 시드 고정 Random으로만 샘플링하므로, 같은 명령 순서라면 매번 같은 지연이 나온다.
+ */
+@FunctionalInterface
+public interface LatencyDistribution {
+
+    /**
+     * @return : 이번 명령에 적용할 지연 (나노초, 0 이상)
+     */
+    long sampleNanos(Random random);
+
+    /**
+     * 확률 probability로 tail 분포의 지연을 더한다. (예: 1% 확률로 50ms 스파이크)
+     */
+    default LatencyDistribution withTail(double probability, LatencyDistribution tail) {
+        LatencyDistribution base = this;
+        return random -> {
+            long nanos = base.sampleNanos(random);
+            return random.nextDouble() < probability ? nanos + tail.sampleNanos(random) : nanos;
+        };
+    }
+
+    static LatencyDistribution none() {
+        return random -> 0L;
+    }
+
+    static LatencyDistribution fixed(Duration latency) {
+        long nanos = latency.toNanos();
+        return random -> nanos;
+    }
+
+    static LatencyDistribution uniform(Duration min, Duration max) {
+        long minNanos = min.toNanos();
+        long spread = Math.max(max.toNanos() - minNanos, 0L);
+        return random -> minNanos + (spread == 0 ? 0 : (long) (random.nextDouble() * spread));
+    }
+
+    static LatencyDistribution exponential(Duration mean) {
+        double meanNanos = mean.toNanos();
+        return random -> (long) (-meanNanos * Math.log(1.0 - random.nextDouble()));
+    }
+
+    /**
+     * 로그정규 분포 - 실제 네트워크/서버 지연처럼 오른쪽 꼬리가 긴 분포
+     * @param median : 중앙값
+     * @param sigma : 꼬리 두께 (0.5 정도면 p99가 중앙값의 약 3배)
+     */
+    static LatencyDistribution logNormal(Duration median, double sigma) {
+        double mu = Math.log(median.toNanos());
+        return random -> (long) Math.exp(mu + sigma * random.nextGaussian());
+    }
+}
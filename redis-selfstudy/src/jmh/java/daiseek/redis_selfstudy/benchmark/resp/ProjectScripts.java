@@ -0,0 +1,203 @@
+package daiseek.redis_selfstudy.benchmark.resp;
+
+import daiseek.redis_selfstudy.product.repository.ProductIndexRepository;
+import daiseek.redis_selfstudy.product.service.ProductServiceV5;
+import daiseek.redis_selfstudy.product.service.ProductServiceV6;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * 이 프로젝트의 Lua 스크립트와 같은 동작을 하는 Java 구현 등록
+ * 스크립트 본문이 바뀌면 SHA1이 달라져서 등록이 풀리므로(EVAL 시 에러), 본문을 고치면 여기 구현도 같이 맞춰야 한다.
+ */
+public final class ProjectScripts {
+
+    private static final long NO_EXPIRE = 0;
+
+    private ProjectScripts() {
+    }
+
+    public static void registerAll(ScriptRegistry registry) {
+        // ProductServiceV5 - 버전 비교 후 쓰기
+        registry.register(ProductServiceV5.COMPARE_AND_SET_SCRIPT.getScriptAsString(), (store, keys, args) -> {
+            if (!isNewer(store, keys.get(1), args.get(0), true)) {
+                return 0L;
+            }
+            long ttlMillis = Long.parseLong(args.get(2)) * 1000;
+            store.setString(keys.get(0), RespDataStore.bytes(args.get(1)), ttlMillis);
+            store.setString(keys.get(1), RespDataStore.bytes(args.get(0)), ttlMillis);
+            return 1L;
+        });
+
+        // ProductServiceV5 - 버전 비교 후 쓰기 + 인덱스 (KEYS[1..3] 인덱스, KEYS[4] 값, KEYS[5] 버전)
+        registry.register(ProductServiceV5.WRITE_SCRIPT.getScriptAsString(), (store, keys, args) -> {
+            if (!isNewer(store, keys.get(4), args.get(3), true)) {
+                return 0L;
+            }
+            long ttlMillis = Long.parseLong(args.get(5)) * 1000;
+            store.setString(keys.get(3), RespDataStore.bytes(args.get(4)), ttlMillis);
+            store.setString(keys.get(4), RespDataStore.bytes(args.get(3)), ttlMillis);
+            index(store, keys, args);
+            return 1L;
+        });
+
+        // ProductServiceV5 - 버전 비교 후 삭제 + 툼스톤 + 인덱스 제거
+        registry.register(ProductServiceV5.TOMBSTONE_SCRIPT.getScriptAsString(), (store, keys, args) -> {
+            if (!isNewer(store, keys.get(4), args.get(1), false)) {
+                return 0L;
+            }
+            store.delete(keys.get(3));
+            store.setString(keys.get(4), RespDataStore.bytes(args.get(1)), Long.parseLong(args.get(2)) * 1000);
+            unindex(store, keys, args.get(0));
+            return 1L;
+        });
+
+        // ProductServiceV6 - 인덱스 + 버킷 HSET + 만료
+        registry.register(ProductServiceV6.WRITE_SCRIPT.getScriptAsString(), (store, keys, args) -> {
+            index(store, keys, args);
+            String bucket = keys.get(3);
+            store.hash(bucket, true).put(args.get(0), RespDataStore.bytes(args.get(3)));
+            store.persistField(bucket, args.get(0)); // HSET은 필드 만료를 지움
+            long ttlMillis = Long.parseLong(args.get(4)) * 1000;
+            if ("field".equals(args.get(5))) {
+                store.expireField(bucket, args.get(0), ttlMillis);
+            } else {
+                store.expire(bucket, ttlMillis);
+            }
+            return 1L;
+        });
+
+        // ProductServiceV6 - 인덱스 제거 + 버킷 HDEL
+        registry.register(ProductServiceV6.DELETE_SCRIPT.getScriptAsString(), (store, keys, args) -> {
+            unindex(store, keys, args.get(0));
+            Map<String, byte[]> bucket = store.hash(keys.get(3), false);
+            if (bucket != null) {
+                bucket.remove(args.get(0));
+                store.persistField(keys.get(3), args.get(0));
+                store.removeIfEmpty(keys.get(3));
+            }
+            return 1L;
+        });
+
+        // ProductIndexRepository - 가격/이름 인덱스 갱신
+        registry.register(ProductIndexRepository.INDEX_SCRIPT.getScriptAsString(), (store, keys, args) -> {
+            index(store, keys, args);
+            return 1L;
+        });
+
+        // ProductIndexRepository - 인덱스 제거
+        registry.register(ProductIndexRepository.UNINDEX_SCRIPT.getScriptAsString(), (store, keys, args) -> {
+            unindex(store, keys, args.get(0));
+            return 1L;
+        });
+
+        // ProductIndexRepository - 인덱스 + 캐시 SET (V2, V3)
+        registry.register(ProductIndexRepository.SET_AND_INDEX_SCRIPT.getScriptAsString(), (store, keys, args) -> {
+            index(store, keys, args);
+            store.setString(keys.get(3), RespDataStore.bytes(args.get(3)), Long.parseLong(args.get(4)) * 1000);
+            return 1L;
+        });
+
+        // ProductIndexRepository - 인덱스 + 캐시 DEL (V1)
+        registry.register(ProductIndexRepository.EVICT_AND_INDEX_SCRIPT.getScriptAsString(), (store, keys, args) -> {
+            index(store, keys, args);
+            store.delete(keys.get(3));
+            return 1L;
+        });
+
+        // ProductIndexRepository - 인덱스 제거 + 캐시 DEL (V1~V3 삭제)
+        registry.register(ProductIndexRepository.EVICT_AND_UNINDEX_SCRIPT.getScriptAsString(), (store, keys, args) -> {
+            unindex(store, keys, args.get(0));
+            store.delete(keys.get(3));
+            return 1L;
+        });
+
+        // ProductIndexRepository - 가격 범위 페이지 (마지막 가격/ID 다음부터)
+        registry.register(ProductIndexRepository.PRICE_PAGE_SCRIPT.getScriptAsString(), (store, keys, args) -> {
+            List<String> result = new ArrayList<>();
+            SortedSetValue priceIndex = store.sortedSet(keys.get(0), false);
+            if (priceIndex == null) {
+                return result;
+            }
+            int count = Integer.parseInt(args.get(2));
+            double min = Double.parseDouble(args.get(0));
+            boolean minExclusive = false;
+            if (!args.get(3).isEmpty()) {
+                double lastScore = Double.parseDouble(args.get(3));
+                for (SortedSetValue.Entry entry : priceIndex.rangeByScore(lastScore, false, lastScore, false, 0, -1, false)) {
+                    if (result.size() >= count * 2) {
+                        break;
+                    }
+                    if (entry.member().compareTo(args.get(4)) > 0) {
+                        result.add(entry.member());
+                        result.add(args.get(3));
+                    }
+                }
+                min = lastScore;
+                minExclusive = true;
+            }
+            if (result.size() < count * 2) {
+                for (SortedSetValue.Entry entry : priceIndex.rangeByScore(min, minExclusive, Double.parseDouble(args.get(1)), false,
+                        0, count - result.size() / 2, false)) {
+                    result.add(entry.member());
+                    result.add(RespWriter.formatDouble(entry.score()));
+                }
+            }
+            return result;
+        });
+    }
+
+    /**
+     * Lua: 채우기는 current > ARGV[1], 툼스톤은 current >= ARGV[1] 이면 거절
+     * @param allowSame : 같은 버전을 허용할지 (채우기 true, 툼스톤 false)
+     */
+    private static boolean isNewer(RespDataStore store, String versionKey, String version, boolean allowSame) {
+        byte[] current = store.getString(versionKey);
+        if (current == null) {
+            return true;
+        }
+        long stored = Long.parseLong(RespDataStore.text(current));
+        long incoming = Long.parseLong(version);
+        return allowSame ? stored <= incoming : stored < incoming;
+    }
+
+    /**
+     * Lua: ProductIndexRepository.INDEX_LUA (ARGV[1..3] = ID, 가격, 이름)
+     */
+    private static void index(RespDataStore store, List<String> keys, List<String> args) {
+        String id = args.get(0);
+        removeNameEntry(store, keys, id);
+        store.sortedSet(keys.get(0), true).add(id, Double.parseDouble(args.get(1)));
+        store.sortedSet(keys.get(1), true).add(args.get(2) + '\0' + id, 0);
+        store.hash(keys.get(2), true).put(id, RespDataStore.bytes(args.get(2)));
+    }
+
+    /**
+     * Lua: ProductIndexRepository.UNINDEX_LUA (ARGV[1] = ID)
+     */
+    private static void unindex(RespDataStore store, List<String> keys, String id) {
+        removeNameEntry(store, keys, id);
+        SortedSetValue priceIndex = store.sortedSet(keys.get(0), false);
+        if (priceIndex != null) {
+            priceIndex.remove(id);
+            store.removeIfEmpty(keys.get(0));
+        }
+        Map<String, byte[]> names = store.hash(keys.get(2), false);
+        if (names != null) {
+            names.remove(id);
+            store.removeIfEmpty(keys.get(2));
+        }
+    }
+
+    private static void removeNameEntry(RespDataStore store, List<String> keys, String id) {
+        Map<String, byte[]> names = store.hash(keys.get(2), false);
+        byte[] old = names == null ? null : names.get(id);
+        SortedSetValue nameIndex = store.sortedSet(keys.get(1), false);
+        if (old != null && nameIndex != null) {
+            nameIndex.remove(RespDataStore.text(old) + '\0' + id);
+            store.removeIfEmpty(keys.get(1));
+        }
+    }
+}
@@ -0,0 +1,618 @@
+package daiseek.redis_selfstudy.benchmark.resp;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * 명령 실행기
+ * 이 프로젝트(RedisTemplate, StringRedisTemplate, Spring Cache, Lettuce 핸드셰이크)가 실제로 보내는 명령만 구현한다.
+ * - 연결: HELLO, PING, ECHO, AUTH, SELECT, CLIENT, INFO, COMMAND, CONFIG, QUIT
+ * - 키: EXISTS, DEL, UNLINK, EXPIRE, PEXPIRE, TTL, PTTL, PERSIST, RENAME, TYPE, DBSIZE, FLUSHALL, FLUSHDB
+ * - String: GET, SET(EX/PX/NX/XX/KEEPTTL/GET), SETEX, PSETEX, MGET, MSET, INCR, INCRBY, DECR
+ * - Hash: HSET, HMSET, HGET, HMGET, HDEL, HGETALL, HEXISTS, HLEN, HINCRBY, HEXPIRE, HPEXPIRE, HTTL, HPTTL, HPERSIST
+ * - Sorted Set: ZADD, ZINCRBY, ZSCORE, ZREM, ZCARD, ZRANGE, ZREVRANGE, ZRANGEBYSCORE, ZREVRANGEBYSCORE, ZRANGEBYLEX, ZUNIONSTORE
+ * - Pub/Sub: SUBSCRIBE, UNSUBSCRIBE, PUBLISH
+ * - 스크립트: EVAL, EVALSHA, SCRIPT LOAD/EXISTS/FLUSH (ScriptRegistry에 등록된 Java 구현으로 실행)
+ */
+final class RespCommandHandler {
+
+    private static final String REDIS_VERSION = "7.2.0";
+
+    private final RespServer server;
+    private final RespDataStore store;
+    private final ScriptRegistry scripts;
+
+    RespCommandHandler(RespServer server, RespDataStore store, ScriptRegistry scripts) {
+        this.server = server;
+        this.store = store;
+        this.scripts = scripts;
+    }
+
+    void handle(RespConnection connection, String name, List<byte[]> args, RespWriter out) {
+        switch (name) {
+            // ===== 연결 =====
+            case "HELLO" -> hello(connection, args, out);
+            case "PING" -> {
+                if (args.size() > 1) {
+                    out.bulk(args.get(1));
+                } else {
+                    out.simple("PONG");
+                }
+            }
+            case "ECHO" -> out.bulk(arg(args, 1));
+            case "AUTH", "SELECT" -> out.ok();
+            case "CLIENT" -> client(connection, args, out);
+            case "INFO" -> out.bulk("# Server\r\nredis_version:" + REDIS_VERSION + "\r\nredis_mode:standalone\r\n");
+            case "COMMAND" -> out.array(0);
+            case "CONFIG" -> {
+                if ("GET".equalsIgnoreCase(text(args, 1))) {
+                    out.map(0);
+                } else {
+                    out.ok();
+                }
+            }
+            case "QUIT" -> {
+                connection.closeAfterFlush = true;
+                out.ok();
+            }
+
+            // ===== 키 =====
+            case "EXISTS" -> {
+                long count = 0;
+                for (int i = 1; i < args.size(); i++) {
+                    count += store.exists(text(args, i)) ? 1 : 0;
+                }
+                out.integer(count);
+            }
+            case "DEL", "UNLINK" -> {
+                long count = 0;
+                for (int i = 1; i < args.size(); i++) {
+                    count += store.delete(text(args, i)) ? 1 : 0;
+                }
+                out.integer(count);
+            }
+            case "EXPIRE" -> out.integer(store.expire(text(args, 1), number(args, 2) * 1000) ? 1 : 0);
+            case "PEXPIRE" -> out.integer(store.expire(text(args, 1), number(args, 2)) ? 1 : 0);
+            case "TTL" -> {
+                long ttl = store.ttlMillis(text(args, 1));
+                out.integer(ttl < 0 ? ttl : (ttl + 999) / 1000);
+            }
+            case "PTTL" -> out.integer(store.ttlMillis(text(args, 1)));
+            case "PERSIST" -> out.integer(store.persist(text(args, 1)) ? 1 : 0);
+            case "RENAME" -> {
+                store.rename(text(args, 1), text(args, 2));
+                out.ok();
+            }
+            case "TYPE" -> out.simple(store.type(text(args, 1)));
+            case "DBSIZE" -> out.integer(store.size());
+            case "FLUSHALL", "FLUSHDB" -> {
+                store.clear();
+                out.ok();
+            }
+
+            // ===== String =====
+            case "GET" -> out.bulk(store.getString(text(args, 1)));
+            case "SET" -> set(args, out);
+            case "SETEX" -> {
+                store.setString(text(args, 1), arg(args, 3), number(args, 2) * 1000);
+                out.ok();
+            }
+            case "PSETEX" -> {
+                store.setString(text(args, 1), arg(args, 3), number(args, 2));
+                out.ok();
+            }
+            case "MGET" -> {
+                out.array(args.size() - 1);
+                for (int i = 1; i < args.size(); i++) {
+                    Object value = store.lookup(text(args, i));
+                    out.bulk(value instanceof byte[] bytes ? bytes : null); // 다른 타입이면 nil (Redis와 동일)
+                }
+            }
+            case "MSET" -> {
+                for (int i = 1; i + 1 < args.size(); i += 2) {
+                    store.setString(text(args, i), arg(args, i + 1), 0);
+                }
+                out.ok();
+            }
+            case "INCR" -> out.integer(incrementBy(text(args, 1), 1));
+            case "DECR" -> out.integer(incrementBy(text(args, 1), -1));
+            case "INCRBY" -> out.integer(incrementBy(text(args, 1), number(args, 2)));
+
+            // ===== Hash =====
+            case "HSET", "HMSET" -> {
+                Map<String, byte[]> hash = store.hash(text(args, 1), true);
+                long added = 0;
+                for (int i = 2; i + 1 < args.size(); i += 2) {
+                    added += hash.put(text(args, i), arg(args, i + 1)) == null ? 1 : 0;
+                    store.persistField(text(args, 1), text(args, i)); // 값을 덮어쓰면 필드 만료도 사라짐 (Redis와 동일)
+                }
+                if ("HMSET".equals(name)) {
+                    out.ok();
+                } else {
+                    out.integer(added);
+                }
+            }
+            case "HGET" -> {
+                Map<String, byte[]> hash = store.hash(text(args, 1), false);
+                out.bulk(hash == null ? null : hash.get(text(args, 2)));
+            }
+            case "HMGET" -> {
+                Map<String, byte[]> hash = store.hash(text(args, 1), false);
+                out.array(args.size() - 2);
+                for (int i = 2; i < args.size(); i++) {
+                    out.bulk(hash == null ? null : hash.get(text(args, i)));
+                }
+            }
+            case "HDEL" -> {
+                String key = text(args, 1);
+                Map<String, byte[]> hash = store.hash(key, false);
+                long removed = 0;
+                if (hash != null) {
+                    for (int i = 2; i < args.size(); i++) {
+                        removed += hash.remove(text(args, i)) != null ? 1 : 0;
+                        store.persistField(key, text(args, i));
+                    }
+                    store.removeIfEmpty(key);
+                }
+                out.integer(removed);
+            }
+            case "HGETALL" -> {
+                Map<String, byte[]> hash = store.hash(text(args, 1), false);
+                if (hash == null) {
+                    out.map(0);
+                } else {
+                    out.map(hash.size());
+                    hash.forEach((field, value) -> {
+                        out.bulk(field);
+                        out.bulk(value);
+                    });
+                }
+            }
+            case "HEXISTS" -> {
+                Map<String, byte[]> hash = store.hash(text(args, 1), false);
+                out.integer(hash != null && hash.containsKey(text(args, 2)) ? 1 : 0);
+            }
+            case "HLEN" -> {
+                Map<String, byte[]> hash = store.hash(text(args, 1), false);
+                out.integer(hash == null ? 0 : hash.size());
+            }
+            case "HEXPIRE", "HPEXPIRE" -> {
+                // HEXPIRE key seconds [NX|XX|GT|LT] FIELDS numfields field ...  (조건 옵션은 지원하지 않음)
+                String key = text(args, 1);
+                long ttlMillis = "HEXPIRE".equals(name) ? number(args, 2) * 1000 : number(args, 2);
+                int fieldsIndex = 3;
+                if (!"FIELDS".equalsIgnoreCase(text(args, fieldsIndex))) {
+                    throw new RespError("ERR unsupported HEXPIRE option " + text(args, fieldsIndex));
+                }
+                int fieldCount = (int) number(args, fieldsIndex + 1);
+                out.array(fieldCount);
+                for (int i = 0; i < fieldCount; i++) {
+                    out.integer(store.expireField(key, text(args, fieldsIndex + 2 + i), ttlMillis));
+                }
+            }
+            case "HTTL", "HPTTL", "HPERSIST" -> {
+                // HTTL key FIELDS numfields field ...
+                String key = text(args, 1);
+                int fieldCount = (int) number(args, 3);
+                out.array(fieldCount);
+                for (int i = 0; i < fieldCount; i++) {
+                    String field = text(args, 4 + i);
+                    long ttl = store.fieldTtlMillis(key, field);
+                    if ("HPERSIST".equals(name)) {
+                        out.integer(ttl == -2 ? -2 : store.persistField(key, field) ? 1 : -1);
+                    } else {
+                        out.integer(ttl < 0 || "HPTTL".equals(name) ? ttl : (ttl + 999) / 1000);
+                    }
+                }
+            }
+            case "HINCRBY" -> {
+                Map<String, byte[]> hash = store.hash(text(args, 1), true);
+                byte[] current = hash.get(text(args, 2));
+                long value = (current == null ? 0 : parseLong(RespDataStore.text(current))) + number(args, 3);
+                hash.put(text(args, 2), RespDataStore.bytes(Long.toString(value)));
+                out.integer(value);
+            }
+
+            // ===== Sorted Set =====
+            case "ZADD" -> zadd(args, out);
+            case "ZINCRBY" -> out.doubleValue(store.sortedSet(text(args, 1), true).increment(text(args, 3), score(args, 2)));
+            case "ZSCORE" -> {
+                SortedSetValue sortedSet = store.sortedSet(text(args, 1), false);
+                Double score = sortedSet == null ? null : sortedSet.score(text(args, 2));
+                if (score == null) {
+                    out.nil();
+                } else {
+                    out.doubleValue(score);
+                }
+            }
+            case "ZREM" -> {
+                String key = text(args, 1);
+                SortedSetValue sortedSet = store.sortedSet(key, false);
+                long removed = 0;
+                if (sortedSet != null) {
+                    for (int i = 2; i < args.size(); i++) {
+                        removed += sortedSet.remove(text(args, i)) ? 1 : 0;
+                    }
+                    store.removeIfEmpty(key);
+                }
+                out.integer(removed);
+            }
+            case "ZCARD" -> {
+                SortedSetValue sortedSet = store.sortedSet(text(args, 1), false);
+                out.integer(sortedSet == null ? 0 : sortedSet.size());
+            }
+            case "ZRANGE", "ZREVRANGE" -> {
+                SortedSetValue sortedSet = store.sortedSet(text(args, 1), false);
+                boolean withScores = hasFlag(args, 4, "WITHSCORES");
+                List<SortedSetValue.Entry> entries = sortedSet == null ? List.of()
+                        : sortedSet.rangeByRank(number(args, 2), number(args, 3), "ZREVRANGE".equals(name));
+                writeEntries(entries, withScores, out);
+            }
+            case "ZRANGEBYSCORE", "ZREVRANGEBYSCORE" -> rangeByScore(args, "ZREVRANGEBYSCORE".equals(name), out);
+            case "ZRANGEBYLEX" -> rangeByLex(args, out);
+            case "ZUNIONSTORE" -> zunionstore(args, out);
+
+            // ===== Pub/Sub =====
+            case "SUBSCRIBE" -> {
+                for (int i = 1; i < args.size(); i++) {
+                    String channel = text(args, i);
+                    connection.subscriptions.add(channel);
+                    out.push(3);
+                    out.bulk("subscribe");
+                    out.bulk(channel);
+                    out.integer(connection.subscriptions.size());
+                }
+            }
+            case "UNSUBSCRIBE" -> {
+                List<String> channels = new ArrayList<>();
+                for (int i = 1; i < args.size(); i++) {
+                    channels.add(text(args, i));
+                }
+                if (channels.isEmpty()) {
+                    channels.addAll(connection.subscriptions);
+                }
+                for (String channel : channels) {
+                    connection.subscriptions.remove(channel);
+                    out.push(3);
+                    out.bulk("unsubscribe");
+                    out.bulk(channel);
+                    out.integer(connection.subscriptions.size());
+                }
+            }
+            case "PUBLISH" -> out.integer(server.publish(text(args, 1), arg(args, 2)));
+
+            // ===== 스크립트 =====
+            case "EVAL" -> evaluate(ScriptRegistry.sha1(arg(args, 1)), args, out, "ERR unsupported script: register a Java handler in ScriptRegistry");
+            case "EVALSHA" -> evaluate(text(args, 1), args, out, "NOSCRIPT No matching script. Please use EVAL.");
+            case "SCRIPT" -> script(args, out);
+
+            default -> out.error("ERR unknown command '" + name.toLowerCase(Locale.ROOT) + "'");
+        }
+    }
+
+    private void hello(RespConnection connection, List<byte[]> args, RespWriter out) {
+        if (args.size() > 1) {
+            long version = number(args, 1);
+            if (version != 2 && version != 3) {
+                throw new RespError("NOPROTO unsupported protocol version");
+            }
+            connection.resp3 = version == 3;
+        }
+        out.protocol(connection.resp3);
+        out.map(7);
+        out.bulk("server");
+        out.bulk("redis");
+        out.bulk("version");
+        out.bulk(REDIS_VERSION);
+        out.bulk("proto");
+        out.integer(connection.resp3 ? 3 : 2);
+        out.bulk("id");
+        out.integer(connection.id);
+        out.bulk("mode");
+        out.bulk("standalone");
+        out.bulk("role");
+        out.bulk("master");
+        out.bulk("modules");
+        out.array(0);
+    }
+
+    private void client(RespConnection connection, List<byte[]> args, RespWriter out) {
+        String subcommand = text(args, 1).toUpperCase(Locale.ROOT);
+        switch (subcommand) {
+            case "ID" -> out.integer(connection.id);
+            case "GETNAME" -> out.nil();
+            default -> out.ok(); // SETNAME, SETINFO 등은 기록만 하고 무시
+        }
+    }
+
+    private void set(List<byte[]> args, RespWriter out) {
+        String key = text(args, 1);
+        byte[] value = arg(args, 2);
+        long ttlMillis = 0;
+        boolean nx = false;
+        boolean xx = false;
+        boolean keepTtl = false;
+        boolean get = false;
+        for (int i = 3; i < args.size(); i++) {
+            switch (text(args, i).toUpperCase(Locale.ROOT)) {
+                case "EX" -> ttlMillis = number(args, ++i) * 1000;
+                case "PX" -> ttlMillis = number(args, ++i);
+                case "NX" -> nx = true;
+                case "XX" -> xx = true;
+                case "KEEPTTL" -> keepTtl = true;
+                case "GET" -> get = true;
+                default -> throw new RespError("ERR syntax error");
+            }
+        }
+
+        byte[] previous = store.getString(key);
+        boolean write = !(nx && previous != null) && !(xx && previous == null);
+        if (write) {
+            if (keepTtl && previous != null) {
+                store.replaceString(key, value);
+            } else {
+                store.setString(key, value, ttlMillis);
+            }
+        }
+
+        if (get) {
+            out.bulk(previous);
+        } else if (write) {
+            out.ok();
+        } else {
+            out.nil();
+        }
+    }
+
+    private long incrementBy(String key, long delta) {
+        byte[] current = store.getString(key);
+        long value = (current == null ? 0 : parseLong(RespDataStore.text(current))) + delta;
+        if (current == null) {
+            store.setString(key, RespDataStore.bytes(Long.toString(value)), 0);
+        } else {
+            store.replaceString(key, RespDataStore.bytes(Long.toString(value)));
+        }
+        return value;
+    }
+
+    private void zadd(List<byte[]> args, RespWriter out) {
+        String key = text(args, 1);
+        boolean nx = false;
+        boolean xx = false;
+        boolean changed = false;
+        int index = 2;
+        for (; index < args.size(); index++) {
+            String option = text(args, index).toUpperCase(Locale.ROOT);
+            if ("NX".equals(option)) {
+                nx = true;
+            } else if ("XX".equals(option)) {
+                xx = true;
+            } else if ("CH".equals(option)) {
+                changed = true;
+            } else {
+                break;
+            }
+        }
+
+        SortedSetValue sortedSet = store.sortedSet(key, true);
+        long count = 0;
+        for (; index + 1 < args.size(); index += 2) {
+            double score = score(args, index);
+            String member = text(args, index + 1);
+            Double previous = sortedSet.score(member);
+            if ((nx && previous != null) || (xx && previous == null)) {
+                continue;
+            }
+            boolean added = sortedSet.add(member, score);
+            if (added || (changed && previous != score)) {
+                count++;
+            }
+        }
+        store.removeIfEmpty(key);
+        out.integer(count);
+    }
+
+    private void rangeByScore(List<byte[]> args, boolean reverse, RespWriter out) {
+        SortedSetValue sortedSet = store.sortedSet(text(args, 1), false);
+        // ZREVRANGEBYSCORE는 max, min 순서로 받는다
+        String minText = text(args, reverse ? 3 : 2);
+        String maxText = text(args, reverse ? 2 : 3);
+        boolean withScores = false;
+        long offset = 0;
+        long count = -1;
+        for (int i = 4; i < args.size(); i++) {
+            String option = text(args, i).toUpperCase(Locale.ROOT);
+            if ("WITHSCORES".equals(option)) {
+                withScores = true;
+            } else if ("LIMIT".equals(option)) {
+                offset = number(args, ++i);
+                count = number(args, ++i);
+            }
+        }
+
+        List<SortedSetValue.Entry> entries = sortedSet == null ? List.of() : sortedSet.rangeByScore(
+                parseScore(stripExclusive(minText)), minText.startsWith("("),
+                parseScore(stripExclusive(maxText)), maxText.startsWith("("),
+                offset, count, reverse);
+        writeEntries(entries, withScores, out);
+    }
+
+    private void rangeByLex(List<byte[]> args, RespWriter out) {
+        SortedSetValue sortedSet = store.sortedSet(text(args, 1), false);
+        String minText = text(args, 2);
+        String maxText = text(args, 3);
+        long offset = 0;
+        long count = -1;
+        for (int i = 4; i < args.size(); i++) {
+            if ("LIMIT".equalsIgnoreCase(text(args, i))) {
+                offset = number(args, ++i);
+                count = number(args, ++i);
+            }
+        }
+
+        List<SortedSetValue.Entry> entries = sortedSet == null ? List.of() : sortedSet.rangeByLex(
+                lexBound(minText), minText.startsWith("("),
+                lexBound(maxText), maxText.startsWith("("),
+                offset, count);
+        writeEntries(entries, false, out);
+    }
+
+    private void zunionstore(List<byte[]> args, RespWriter out) {
+        String destination = text(args, 1);
+        int keyCount = (int) number(args, 2);
+        List<String> keys = new ArrayList<>(keyCount);
+        for (int i = 0; i < keyCount; i++) {
+            keys.add(text(args, 3 + i));
+        }
+        double[] weights = new double[keyCount];
+        Arrays.fill(weights, 1.0);
+        String aggregate = "SUM";
+        for (int i = 3 + keyCount; i < args.size(); i++) {
+            String option = text(args, i).toUpperCase(Locale.ROOT);
+            if ("WEIGHTS".equals(option)) {
+                for (int w = 0; w < keyCount; w++) {
+                    weights[w] = score(args, ++i);
+                }
+            } else if ("AGGREGATE".equals(option)) {
+                aggregate = text(args, ++i).toUpperCase(Locale.ROOT);
+            }
+        }
+
+        SortedSetValue union = new SortedSetValue();
+        for (int k = 0; k < keyCount; k++) {
+            SortedSetValue source = store.sortedSet(keys.get(k), false);
+            if (source == null) {
+                continue;
+            }
+            double weight = weights[k];
+            for (Map.Entry<String, Double> entry : source.asMap().entrySet()) {
+                double weighted = entry.getValue() * weight;
+                Double current = union.score(entry.getKey());
+                double combined = current == null ? weighted : switch (aggregate) {
+                    case "MIN" -> Math.min(current, weighted);
+                    case "MAX" -> Math.max(current, weighted);
+                    default -> current + weighted;
+                };
+                union.add(entry.getKey(), combined);
+            }
+        }
+
+        store.delete(destination);
+        if (union.size() > 0) {
+            SortedSetValue target = store.sortedSet(destination, true);
+            union.asMap().forEach(target::add);
+        }
+        out.integer(union.size());
+    }
+
+    private void evaluate(String sha1, List<byte[]> args, RespWriter out, String missingMessage) {
+        ScriptRegistry.ScriptHandler handler = scripts.find(sha1);
+        if (handler == null) {
+            throw new RespError(missingMessage);
+        }
+        int keyCount = (int) number(args, 2);
+        List<String> keys = new ArrayList<>(keyCount);
+        for (int i = 0; i < keyCount; i++) {
+            keys.add(text(args, 3 + i));
+        }
+        List<String> scriptArgs = new ArrayList<>();
+        for (int i = 3 + keyCount; i < args.size(); i++) {
+            scriptArgs.add(text(args, i));
+        }
+        out.object(handler.run(store, keys, scriptArgs));
+    }
+
+    private void script(List<byte[]> args, RespWriter out) {
+        switch (text(args, 1).toUpperCase(Locale.ROOT)) {
+            case "LOAD" -> out.bulk(ScriptRegistry.sha1(arg(args, 2)));
+            case "EXISTS" -> {
+                out.array(args.size() - 2);
+                for (int i = 2; i < args.size(); i++) {
+                    out.integer(scripts.find(text(args, i)) != null ? 1 : 0);
+                }
+            }
+            default -> out.ok(); // FLUSH 등 - 등록된 Java 구현은 지우지 않음
+        }
+    }
+
+    private static void writeEntries(List<SortedSetValue.Entry> entries, boolean withScores, RespWriter out) {
+        out.array(withScores ? entries.size() * 2 : entries.size());
+        for (SortedSetValue.Entry entry : entries) {
+            out.bulk(entry.member());
+            if (withScores) {
+                out.doubleValue(entry.score());
+            }
+        }
+    }
+
+    // ===== 인자 해석 =====
+
+    private static byte[] arg(List<byte[]> args, int index) {
+        if (index >= args.size()) {
+            throw new RespError("ERR wrong number of arguments for '" + RespDataStore.text(args.get(0)).toLowerCase(Locale.ROOT) + "' command");
+        }
+        return args.get(index);
+    }
+
+    private static String text(List<byte[]> args, int index) {
+        return RespDataStore.text(arg(args, index));
+    }
+
+    private static boolean hasFlag(List<byte[]> args, int index, String flag) {
+        return index < args.size() && flag.equalsIgnoreCase(RespDataStore.text(args.get(index)));
+    }
+
+    private static long number(List<byte[]> args, int index) {
+        return parseLong(text(args, index));
+    }
+
+    private static double score(List<byte[]> args, int index) {
+        return parseScore(text(args, index));
+    }
+
+    private static long parseLong(String text) {
+        try {
+            return Long.parseLong(text);
+        } catch (NumberFormatException e) {
+            throw new RespError("ERR value is not an integer or out of range");
+        }
+    }
+
+    private static double parseScore(String text) {
+        switch (text.toLowerCase(Locale.ROOT)) {
+            case "inf", "+inf" -> {
+                return Double.POSITIVE_INFINITY;
+            }
+            case "-inf" -> {
+                return Double.NEGATIVE_INFINITY;
+            }
+            default -> {
+                try {
+                    return Double.parseDouble(text);
+                } catch (NumberFormatException e) {
+                    throw new RespError("ERR min or max is not a float");
+                }
+            }
+        }
+    }
+
+    private static String stripExclusive(String bound) {
+        return bound.startsWith("(") ? bound.substring(1) : bound;
+    }
+
+    /**
+     * ZRANGEBYLEX 경계: "-" / "+" 는 무한(null), "[x" 포함, "(x" 미포함
+     */
+    private static String lexBound(String bound) {
+        if ("-".equals(bound) || "+".equals(bound)) {
+            return null;
+        }
+        if (bound.startsWith("[") || bound.startsWith("(")) {
+            return bound.substring(1);
+        }
+        throw new RespError("ERR min or max not valid string range item");
+    }
+}
@@ -0,0 +1,93 @@
+package daiseek.redis_selfstudy.benchmark.resp;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.SelectionKey;
+import java.nio.channels.SocketChannel;
+import java.util.ArrayDeque;
+import java.util.LinkedHashSet;
+import java.util.Set;
+
+/**
+ * 클라이언트 연결 하나의 상태
+ * 서버 루프 스레드에서만 접근한다.
+ */
+final class RespConnection {
+
+    final long id;
+    final SocketChannel channel;
+    final SelectionKey selectionKey;
+    final RespParser parser = new RespParser();
+    final Set<String> subscriptions = new LinkedHashSet<>();
+
+    boolean resp3;
+    boolean closeAfterFlush;
+    long lastExecutionDueNanos; // 같은 연결의 명령은 도착 순서대로 실행되도록 (지연이 달라도 순서 유지)
+    long lastSendDueNanos; // 같은 연결의 응답은 보낸 순서대로 도착하도록
+    boolean protocolFailed; // 프로토콜 오류 응답을 예약함 -> 이후 들어오는 바이트는 해석하지 않고 버림
+
+    // blackhole: 응답하지 않는 명령 이후의 응답을 모두 붙잡아 둔다 (RESP는 요청 ID가 없어 응답 순서가 곧 매칭)
+    boolean stalled;
+    long stallUntilNanos;
+    final ArrayDeque<HeldReply> heldReplies = new ArrayDeque<>();
+
+    record HeldReply(byte[] bytes, boolean closeAfterFlush) {
+    }
+
+    private final ArrayDeque<ByteBuffer> outbound = new ArrayDeque<>();
+
+    RespConnection(long id, SocketChannel channel, SelectionKey selectionKey) {
+        this.id = id;
+        this.channel = channel;
+        this.selectionKey = selectionKey;
+    }
+
+    boolean isOpen() {
+        return channel.isOpen();
+    }
+
+    void enqueue(byte[] bytes) {
+        if (!isOpen()) {
+            return;
+        }
+        outbound.add(ByteBuffer.wrap(bytes));
+        flush();
+    }
+
+    void flush() {
+        if (!isOpen() || !selectionKey.isValid()) {
+            outbound.clear();
+            return;
+        }
+        try {
+            while (!outbound.isEmpty()) {
+                ByteBuffer head = outbound.peek();
+                channel.write(head);
+                if (head.hasRemaining()) {
+                    break; // 소켓 버퍼가 가득 참 -> OP_WRITE로 이어서 전송
+                }
+                outbound.poll();
+            }
+            if (outbound.isEmpty()) {
+                if (closeAfterFlush) {
+                    close();
+                } else {
+                    selectionKey.interestOps(SelectionKey.OP_READ);
+                }
+            } else {
+                selectionKey.interestOps(SelectionKey.OP_READ | SelectionKey.OP_WRITE);
+            }
+        } catch (IOException e) {
+            close();
+        }
+    }
+
+    void close() {
+        selectionKey.cancel();
+        try {
+            channel.close();
+        } catch (IOException ignored) {
+            // 이미 끊긴 연결
+        }
+    }
+}
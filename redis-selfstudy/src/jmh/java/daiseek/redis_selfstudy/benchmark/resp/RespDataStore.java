@@ -0,0 +1,314 @@
+package daiseek.redis_selfstudy.benchmark.resp;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.PriorityQueue;
+
+/**
+ * 키 공간 (단일 DB)
+ * 서버 루프 스레드에서만 접근하므로 동기화하지 않는다. (Redis 본체와 같은 단일 스레드 모델)
+ * 키/필드/멤버는 바이트를 ISO-8859-1 문자열로 옮겨 저장한다. (바이트 <-> 문자 1:1이라 손실 없음)
+ * 값 타입: String -> byte[], Hash -> Map<String, byte[]>, Sorted Set -> SortedSetValue
+ * 만료는 Redis처럼 접근 시점에 확인해서 지운다. (lazy expiration)
+ * Hash 필드 단위 만료(HEXPIRE, Redis 7.4+)도 같은 방식으로 hash() 접근 시 지운다.
+ * 필드 만료는 만료 시각 순 큐(FieldExpiry)로 관리해서, 만료된 필드가 없으면 접근마다 O(1)로 끝난다.
+ * (필드 1000개짜리 버킷에 HGET할 때마다 만료 맵 전체를 훑지 않도록)
+ */
+public final class RespDataStore {
+
+    private final Map<String, Object> data = new HashMap<>();
+    private final Map<String, Long> expiresAtMillis = new HashMap<>();
+    private final Map<String, FieldExpiry> fieldExpiresAtMillis = new HashMap<>();
+
+    /**
+     * Hash 하나의 필드 만료 시각
+     * 큐에는 HPERSIST나 만료 재설정으로 무효가 된 항목이 남을 수 있어, 꺼낼 때 byField의 현재 값과 같은지 확인한다.
+     * 무효 항목이 유효 항목보다 많이 쌓이면 큐를 다시 만든다.
+     */
+    private static final class FieldExpiry {
+
+        private record Deadline(long expiresAt, String field) {
+        }
+
+        private final Map<String, Long> byField = new HashMap<>();
+        private final PriorityQueue<Deadline> queue = new PriorityQueue<>(Comparator.comparingLong(Deadline::expiresAt));
+
+        void put(String field, long expiresAt) {
+            byField.put(field, expiresAt);
+            queue.add(new Deadline(expiresAt, field));
+            if (queue.size() > 2 * byField.size() + 16) {
+                queue.clear();
+                byField.forEach((name, at) -> queue.add(new Deadline(at, name)));
+            }
+        }
+
+        Long get(String field) {
+            return byField.get(field);
+        }
+
+        boolean remove(String field) {
+            return byField.remove(field) != null;
+        }
+
+        boolean isEmpty() {
+            return byField.isEmpty();
+        }
+
+        /**
+         * 만료 시각이 지난 필드를 가장 이른 것부터 꺼내 Hash에서 지운다.
+         */
+        void removeExpired(long now, Map<String, byte[]> hash) {
+            Deadline head;
+            while ((head = queue.peek()) != null && head.expiresAt() <= now) {
+                queue.poll();
+                if (byField.remove(head.field(), head.expiresAt())) {
+                    hash.remove(head.field());
+                }
+            }
+        }
+    }
+
+    public static String text(byte[] bytes) {
+        return new String(bytes, StandardCharsets.ISO_8859_1);
+    }
+
+    public static byte[] bytes(String text) {
+        return text.getBytes(StandardCharsets.ISO_8859_1);
+    }
+
+    public Object lookup(String key) {
+        Long expiresAt = expiresAtMillis.get(key);
+        if (expiresAt != null && expiresAt <= System.currentTimeMillis()) {
+            data.remove(key);
+            expiresAtMillis.remove(key);
+            fieldExpiresAtMillis.remove(key);
+            return null;
+        }
+        return data.get(key);
+    }
+
+    public boolean exists(String key) {
+        Object value = lookup(key);
+        if (value instanceof Map) {
+            return hash(key, false) != null; // 필드가 모두 만료된 Hash는 없는 키
+        }
+        return value != null;
+    }
+
+    public byte[] getString(String key) {
+        Object value = lookup(key);
+        if (value != null && !(value instanceof byte[])) {
+            throw new RespError(RespError.WRONG_TYPE);
+        }
+        return (byte[]) value;
+    }
+
+    /**
+     * @param ttlMillis : 0 이하면 만료 없음
+     */
+    public void setString(String key, byte[] value, long ttlMillis) {
+        data.put(key, value);
+        if (ttlMillis > 0) {
+            expiresAtMillis.put(key, System.currentTimeMillis() + ttlMillis);
+        } else {
+            expiresAtMillis.remove(key);
+        }
+    }
+
+    /**
+     * 만료 시간은 유지한 채 값만 바꾼다. (SET ... KEEPTTL)
+     */
+    public void replaceString(String key, byte[] value) {
+        data.put(key, value);
+    }
+
+    @SuppressWarnings("unchecked")
+    public Map<String, byte[]> hash(String key, boolean create) {
+        Object value = lookup(key);
+        if (value != null && !(value instanceof Map)) {
+            throw new RespError(RespError.WRONG_TYPE);
+        }
+        if (value != null && removeExpiredFields(key, (Map<String, byte[]>) value)) {
+            value = null; // 필드가 모두 만료되어 키가 지워짐
+        }
+        if (value == null) {
+            if (!create) {
+                return null;
+            }
+            value = new LinkedHashMap<String, byte[]>();
+            data.put(key, value);
+        }
+        return (Map<String, byte[]>) value;
+    }
+
+    /**
+     * HEXPIRE 한 필드
+     * @param ttlMillis : 0 이하면 필드를 바로 지움
+     * @return : -2 필드 없음, 1 만료 설정, 2 바로 지움 (Redis HEXPIRE 응답 코드)
+     */
+    public long expireField(String key, String field, long ttlMillis) {
+        Map<String, byte[]> hash = hash(key, false);
+        if (hash == null || !hash.containsKey(field)) {
+            return -2;
+        }
+        if (ttlMillis <= 0) {
+            hash.remove(field);
+            persistField(key, field);
+            removeIfEmpty(key);
+            return 2;
+        }
+        fieldExpiresAtMillis.computeIfAbsent(key, k -> new FieldExpiry()).put(field, System.currentTimeMillis() + ttlMillis);
+        return 1;
+    }
+
+    /**
+     * 필드 만료 제거 (HPERSIST, 그리고 HSET으로 값을 덮어쓸 때 - Redis와 같은 동작)
+     * @return : 만료가 있었는지 여부
+     */
+    public boolean persistField(String key, String field) {
+        FieldExpiry fields = fieldExpiresAtMillis.get(key);
+        if (fields == null || !fields.remove(field)) {
+            return false;
+        }
+        if (fields.isEmpty()) {
+            fieldExpiresAtMillis.remove(key);
+        }
+        return true;
+    }
+
+    /**
+     * @return : 남은 필드 TTL(ms), 필드가 없으면 -2, 만료가 없으면 -1
+     */
+    public long fieldTtlMillis(String key, String field) {
+        Map<String, byte[]> hash = hash(key, false);
+        if (hash == null || !hash.containsKey(field)) {
+            return -2;
+        }
+        FieldExpiry fields = fieldExpiresAtMillis.get(key);
+        Long expiresAt = fields == null ? null : fields.get(field);
+        return expiresAt == null ? -1 : Math.max(expiresAt - System.currentTimeMillis(), 0);
+    }
+
+    /**
+     * @return : 필드가 모두 만료되어 키를 지웠는지 여부
+     */
+    private boolean removeExpiredFields(String key, Map<String, byte[]> hash) {
+        FieldExpiry fields = fieldExpiresAtMillis.get(key);
+        if (fields == null) {
+            return false;
+        }
+        fields.removeExpired(System.currentTimeMillis(), hash);
+        if (fields.isEmpty()) {
+            fieldExpiresAtMillis.remove(key);
+        }
+        if (hash.isEmpty()) {
+            delete(key);
+            return true;
+        }
+        return false;
+    }
+
+    public SortedSetValue sortedSet(String key, boolean create) {
+        Object value = lookup(key);
+        if (value == null) {
+            if (!create) {
+                return null;
+            }
+            value = new SortedSetValue();
+            data.put(key, value);
+        } else if (!(value instanceof SortedSetValue)) {
+            throw new RespError(RespError.WRONG_TYPE);
+        }
+        return (SortedSetValue) value;
+    }
+
+    public boolean delete(String key) {
+        boolean existed = exists(key);
+        data.remove(key);
+        expiresAtMillis.remove(key);
+        fieldExpiresAtMillis.remove(key);
+        return existed;
+    }
+
+    /**
+     * Hash/Sorted Set이 비면 키를 지운다. (Redis는 빈 컬렉션 키를 남기지 않음)
+     */
+    public void removeIfEmpty(String key) {
+        Object value = data.get(key);
+        if ((value instanceof Map<?, ?> map && map.isEmpty())
+                || (value instanceof SortedSetValue sortedSet && sortedSet.size() == 0)) {
+            delete(key);
+        }
+    }
+
+    public boolean expire(String key, long ttlMillis) {
+        if (!exists(key)) {
+            return false;
+        }
+        if (ttlMillis <= 0) {
+            delete(key);
+        } else {
+            expiresAtMillis.put(key, System.currentTimeMillis() + ttlMillis);
+        }
+        return true;
+    }
+
+    public boolean persist(String key) {
+        return exists(key) && expiresAtMillis.remove(key) != null;
+    }
+
+    /**
+     * @return : 남은 TTL(ms), 키가 없으면 -2, 만료가 없으면 -1
+     */
+    public long ttlMillis(String key) {
+        if (!exists(key)) {
+            return -2;
+        }
+        Long expiresAt = expiresAtMillis.get(key);
+        return expiresAt == null ? -1 : Math.max(expiresAt - System.currentTimeMillis(), 0);
+    }
+
+    public void rename(String source, String target) {
+        Object value = lookup(source);
+        if (value == null) {
+            throw new RespError("ERR no such key");
+        }
+        Long expiresAt = expiresAtMillis.remove(source);
+        FieldExpiry fieldExpiry = fieldExpiresAtMillis.remove(source);
+        data.remove(source);
+        fieldExpiresAtMillis.remove(target);
+        data.put(target, value);
+        if (fieldExpiry != null) {
+            fieldExpiresAtMillis.put(target, fieldExpiry);
+        }
+        if (expiresAt != null) {
+            expiresAtMillis.put(target, expiresAt);
+        } else {
+            expiresAtMillis.remove(target);
+        }
+    }
+
+    public String type(String key) {
+        Object value = lookup(key);
+        if (value == null) {
+            return "none";
+        }
+        if (value instanceof byte[]) {
+            return "string";
+        }
+        return value instanceof SortedSetValue ? "zset" : "hash";
+    }
+
+    public int size() {
+        return data.size();
+    }
+
+    public void clear() {
+        data.clear();
+        expiresAtMillis.clear();
+        fieldExpiresAtMillis.clear();
+    }
+}
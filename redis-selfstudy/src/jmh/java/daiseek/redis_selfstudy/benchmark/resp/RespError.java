@@ -0,0 +1,13 @@
+package daiseek.redis_selfstudy.benchmark.resp;
+
+/**
+ * 클라이언트에게 RESP 에러(-ERR ..., -WRONGTYPE ...)로 돌려줄 예외
+ */
+public class RespError extends RuntimeException {
+
+    public static final String WRONG_TYPE = "WRONGTYPE Operation against a key holding the wrong kind of value";
+
+    public RespError(String message) {
+        super(message);
+    }
+}
@@ -0,0 +1,119 @@
+package daiseek.redis_selfstudy.benchmark.resp;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * 요청 파서 (클라이언트 -> 서버)
+ * 여러 번에 나뉘어 도착한 바이트를 모아두고, 완성된 명령만 하나씩 꺼낸다.
+ * 1. RESP 배열: *3\r\n$3\r\nSET\r\n$1\r\nk\r\n$1\r\nv\r\n (클라이언트 라이브러리가 보내는 형식)
+ * 2. 인라인 명령: PING\r\n (redis-cli/telnet으로 직접 칠 때)
+ */
+final class RespParser {
+
+    private byte[] buffer = new byte[16 * 1024];
+    private int start;
+    private int end;
+
+    void feed(ByteBuffer source) {
+        int incoming = source.remaining();
+        if (end + incoming > buffer.length) {
+            // 이미 처리한 앞부분을 버리고, 그래도 부족하면 늘린다
+            int pending = end - start;
+            byte[] target = pending + incoming > buffer.length
+                    ? new byte[Math.max(buffer.length * 2, pending + incoming)]
+                    : buffer;
+            System.arraycopy(buffer, start, target, 0, pending);
+            buffer = target;
+            start = 0;
+            end = pending;
+        }
+        source.get(buffer, end, incoming);
+        end += incoming;
+    }
+
+    /**
+     * @return : 완성된 명령 하나 (인자 목록), 아직 덜 도착했으면 null
+     */
+    List<byte[]> next() {
+        if (start >= end) {
+            return null;
+        }
+        return buffer[start] == '*' ? nextMultiBulk() : nextInline();
+    }
+
+    private List<byte[]> nextMultiBulk() {
+        int position = start;
+        int lineEnd = findLineEnd(position);
+        if (lineEnd < 0) {
+            return null;
+        }
+        int count = (int) parseNumber(position + 1, lineEnd);
+        position = lineEnd + 2;
+
+        List<byte[]> arguments = new ArrayList<>(Math.max(count, 0));
+        for (int i = 0; i < count; i++) {
+            if (position >= end) {
+                return null;
+            }
+            if (buffer[position] != '$') {
+                throw new RespError("ERR Protocol error: expected '$', got '" + (char) buffer[position] + "'");
+            }
+            lineEnd = findLineEnd(position);
+            if (lineEnd < 0) {
+                return null;
+            }
+            int length = (int) parseNumber(position + 1, lineEnd);
+            position = lineEnd + 2;
+            if (position + length + 2 > end) {
+                return null;
+            }
+            arguments.add(Arrays.copyOfRange(buffer, position, position + length));
+            position += length + 2;
+        }
+        start = position;
+        return arguments;
+    }
+
+    private List<byte[]> nextInline() {
+        int lineEnd = findLineEnd(start);
+        if (lineEnd < 0) {
+            return null;
+        }
+        String line = new String(buffer, start, lineEnd - start, StandardCharsets.ISO_8859_1).trim();
+        start = lineEnd + 2;
+
+        List<byte[]> arguments = new ArrayList<>();
+        for (String token : line.split("\\s+")) {
+            if (!token.isEmpty()) {
+                arguments.add(token.getBytes(StandardCharsets.ISO_8859_1));
+            }
+        }
+        return arguments.isEmpty() ? next() : arguments;
+    }
+
+    private int findLineEnd(int from) {
+        for (int i = from; i < end - 1; i++) {
+            if (buffer[i] == '\r' && buffer[i + 1] == '\n') {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    private long parseNumber(int from, int to) {
+        boolean negative = buffer[from] == '-';
+        long value = 0;
+        for (int i = negative ? from + 1 : from; i < to; i++) {
+            int digit = buffer[i] - '0';
+            if (digit < 0 || digit > 9) {
+                throw new RespError("ERR Protocol error: invalid length");
+            }
+            value = value * 10 + digit;
+        }
+        return negative ? -value : value;
+    }
+}
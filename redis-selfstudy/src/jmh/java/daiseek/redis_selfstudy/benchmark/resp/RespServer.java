@@ -0,0 +1,487 @@
+package daiseek.redis_selfstudy.benchmark.resp;
+
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.nio.ByteBuffer;
+import java.nio.channels.SelectionKey;
+import java.nio.channels.Selector;
+import java.nio.channels.ServerSocketChannel;
+import java.nio.channels.SocketChannel;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.Queue;
+import java.util.Random;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Note. 벤치마크용 인프로세스 Redis 대역 (RESP2/RESP3)
+ * docker-compose의 redis 컨테이너 없이, 이 프로젝트가 쓰는 명령만 지원하는 가벼운 서버를 같은 JVM 안에 띄운다.
+ * 실제 Lettuce 클라이언트(RedisConfig.redisConnectionFactory)가 로컬 소켓으로 붙기 때문에 직렬화/네트워크 경로는 그대로다.
+ *
+ * 구조
+ * 1. NIO Selector 스레드 하나가 accept/read/write와 명령 실행을 모두 처리한다. (Redis와 같은 단일 스레드 모델)
+ * 2. 명령은 도착 즉시 실행하지 않고 "실행 예정 시각"과 함께 타이머 큐에 넣는다.
+ *    - 예정 시각 = 도착 시각 + 명령별 지연 샘플 (같은 연결 안에서는 도착 순서 유지)
+ * 3. 응답도 패킷 지연/분할 설정에 따라 타이머 큐를 거쳐 전송된다.
+ *
+ * 장애 주입
+ * - latency(command, 분포): 명령별 처리 지연 분포 (고정/균등/지수/로그정규 + 꼬리 스파이크)
+ * - packetDelay(분포), fragmentResponses(크기, 간격): 응답 전송 지연, 응답을 잘게 나눠 늦게 보내기
+ * - pause(시간): 서버 전체 일시 정지 (GC 정지, CLIENT PAUSE, fork 지연 흉내)
+ * - failNext(command, 횟수): 다음 N번 에러 응답
+ * - blackhole(command[, 정지 시간]): 응답하지 않음 (클라이언트 명령 타임아웃 재현)
+ *   RESP에는 요청 ID가 없고 클라이언트(Lettuce)는 응답을 보낸 순서대로 명령에 짝짓는다.
+ *   그래서 그 명령만 빼먹으면 다음 응답이 앞 명령의 응답으로 잘못 매칭된다.
+ *   대신 그 연결 전체를 멈춘다: 이후 응답은 모두 붙잡아 두고, 연결이 끊기거나 정지 시간이 지나야 순서대로 내보낸다.
+ *   (정지 시간이 지나면 멈췄던 명령의 응답도 늦게 나간다. 클라이언트는 이미 타임아웃 난 명령의 응답으로 처리하고 버린다)
+ * - dropConnections(): 모든 연결 강제 종료 (재연결 경로 재현)
+ *
+ * 지연 샘플링은 시드 고정 Random으로 루프 스레드에서만 하므로, 같은 요청 순서면 같은 지연이 재현된다.
+ */
+public final class RespServer implements AutoCloseable {
+
+    private final ServerSocketChannel serverChannel;
+    private final Selector selector;
+    private final Thread loopThread;
+    private final Random random;
+    private final RespDataStore store = new RespDataStore();
+    private final ScriptRegistry scripts = new ScriptRegistry();
+    private final RespCommandHandler commandHandler;
+    private final ByteBuffer readBuffer = ByteBuffer.allocateDirect(64 * 1024);
+
+    // 루프 스레드 전용
+    private final PriorityQueue<TimedTask> timedTasks = new PriorityQueue<>();
+    private final List<RespConnection> connections = new ArrayList<>();
+    private long taskSequence;
+    private long connectionSequence;
+
+    // 다른 스레드 -> 루프 스레드
+    private final Queue<Runnable> loopActions = new ConcurrentLinkedQueue<>();
+    private volatile boolean running = true;
+
+    // 장애 주입 설정 (다른 스레드에서 변경 가능)
+    private static final Duration STALL_UNTIL_DROPPED = Duration.ofNanos(Long.MAX_VALUE);
+
+    private final Map<String, LatencyDistribution> commandLatencies = new ConcurrentHashMap<>();
+    private final Map<String, AtomicInteger> injectedFailures = new ConcurrentHashMap<>();
+    private final Map<String, Duration> blackholedCommands = new ConcurrentHashMap<>(); // 명령 -> 연결 정지 시간
+    private volatile LatencyDistribution defaultLatency = LatencyDistribution.none();
+    private volatile LatencyDistribution packetDelay = LatencyDistribution.none();
+    private volatile int fragmentSize;
+    private volatile long fragmentGapNanos;
+    private volatile long pausedUntilNanos;
+
+    private RespServer(int port, long seed) throws IOException {
+        this.random = new Random(seed);
+        this.selector = Selector.open();
+        this.serverChannel = ServerSocketChannel.open();
+        serverChannel.bind(new InetSocketAddress("127.0.0.1", port));
+        serverChannel.configureBlocking(false);
+        serverChannel.register(selector, SelectionKey.OP_ACCEPT);
+        this.commandHandler = new RespCommandHandler(this, store, scripts);
+        this.loopThread = new Thread(this::runLoop, "resp-stand-in");
+        loopThread.setDaemon(true);
+    }
+
+    /**
+     * @param port : 0이면 비어있는 포트를 자동으로 사용
+     * @param seed : 지연 샘플링 시드
+     */
+    public static RespServer start(int port, long seed) throws IOException {
+        RespServer server = new RespServer(port, seed);
+        server.loopThread.start();
+        return server;
+    }
+
+    public int port() {
+        return serverChannel.socket().getLocalPort();
+    }
+
+    public ScriptRegistry scripts() {
+        return scripts;
+    }
+
+    public RespServer latency(String command, LatencyDistribution distribution) {
+        commandLatencies.put(command.toUpperCase(Locale.ROOT), distribution);
+        return this;
+    }
+
+    public RespServer defaultLatency(LatencyDistribution distribution) {
+        this.defaultLatency = distribution;
+        return this;
+    }
+
+    public RespServer packetDelay(LatencyDistribution distribution) {
+        this.packetDelay = distribution;
+        return this;
+    }
+
+    /**
+     * 응답을 fragmentBytes 크기로 나눠서 gap 간격으로 보낸다. (0이면 끔)
+     */
+    public RespServer fragmentResponses(int fragmentBytes, Duration gap) {
+        this.fragmentGapNanos = gap.toNanos();
+        this.fragmentSize = fragmentBytes;
+        return this;
+    }
+
+    /**
+     * 지금부터 duration 동안 서버가 어떤 명령도 실행하지 않는다. (쌓인 명령은 끝난 뒤 순서대로 실행)
+     */
+    public void pause(Duration duration) {
+        pausedUntilNanos = System.nanoTime() + duration.toNanos();
+    }
+
+    public void failNext(String command, int times) {
+        injectedFailures.computeIfAbsent(command.toUpperCase(Locale.ROOT), name -> new AtomicInteger()).addAndGet(times);
+    }
+
+    /**
+     * 명령에 응답하지 않고, 그 연결의 이후 응답도 연결이 끊길 때까지 모두 붙잡아 둔다.
+     */
+    public void blackhole(String command) {
+        blackhole(command, STALL_UNTIL_DROPPED);
+    }
+
+    /**
+     * 명령에 응답하지 않고, 그 연결의 이후 응답도 stall 동안 붙잡아 둔다.
+     * stall이 지나면 멈췄던 명령의 응답부터 순서대로 보낸다.
+     */
+    public void blackhole(String command, Duration stall) {
+        blackholedCommands.put(command.toUpperCase(Locale.ROOT), stall);
+    }
+
+    public void dropConnections() {
+        runOnLoop(() -> {
+            connections.forEach(RespConnection::close);
+            connections.clear();
+        });
+    }
+
+    /**
+     * 장애 주입 설정을 모두 초기화한다. (데이터는 유지)
+     */
+    public void resetFaults() {
+        commandLatencies.clear();
+        injectedFailures.clear();
+        blackholedCommands.clear();
+        defaultLatency = LatencyDistribution.none();
+        packetDelay = LatencyDistribution.none();
+        fragmentSize = 0;
+        pausedUntilNanos = 0;
+        runOnLoop(() -> connections.forEach(connection -> {
+            connection.stallUntilNanos = 0;
+            releaseStall(connection);
+        }));
+    }
+
+    /**
+     * 모든 데이터를 지운다. 루프 스레드에서 처리가 끝날 때까지 기다린다.
+     */
+    public void flushAll() throws InterruptedException {
+        CountDownLatch done = new CountDownLatch(1);
+        runOnLoop(() -> {
+            store.clear();
+            done.countDown();
+        });
+        done.await();
+    }
+
+    @Override
+    public void close() throws IOException {
+        running = false;
+        selector.wakeup();
+        try {
+            loopThread.join(1000);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        serverChannel.close();
+        selector.close();
+    }
+
+    // ===== 루프 스레드 =====
+
+    private void runLoop() {
+        while (running) {
+            try {
+                waitForWork();
+                handleSelectedKeys();
+                Runnable action;
+                while ((action = loopActions.poll()) != null) {
+                    action.run();
+                }
+                runDueTasks();
+            } catch (IOException e) {
+                System.err.println("RespServer: 루프 오류 " + e.getMessage());
+            }
+        }
+        connections.forEach(RespConnection::close);
+    }
+
+    private void waitForWork() throws IOException {
+        TimedTask next = timedTasks.peek();
+        if (next == null) {
+            selector.select();
+            return;
+        }
+        long waitNanos = next.dueNanos - System.nanoTime();
+        if (waitNanos >= 1_000_000) {
+            selector.select(waitNanos / 1_000_000);
+        } else {
+            // select 타임아웃은 ms 단위라서, 1ms 미만 지연은 짧게 쉬면서 확인
+            selector.selectNow();
+            if (waitNanos > 0) {
+                LockSupport.parkNanos(Math.min(waitNanos, 20_000));
+            }
+        }
+    }
+
+    private void handleSelectedKeys() throws IOException {
+        Iterator<SelectionKey> iterator = selector.selectedKeys().iterator();
+        while (iterator.hasNext()) {
+            SelectionKey key = iterator.next();
+            iterator.remove();
+            if (!key.isValid()) {
+                continue;
+            }
+            if (key.isAcceptable()) {
+                accept();
+                continue;
+            }
+            RespConnection connection = (RespConnection) key.attachment();
+            if (key.isReadable()) {
+                read(connection);
+            }
+            if (key.isValid() && key.isWritable()) {
+                connection.flush();
+            }
+        }
+    }
+
+    private void accept() throws IOException {
+        SocketChannel channel = serverChannel.accept();
+        if (channel == null) {
+            return;
+        }
+        connections.removeIf(connection -> !connection.isOpen()); // QUIT/오류로 닫힌 연결 정리
+        channel.configureBlocking(false);
+        channel.socket().setTcpNoDelay(true);
+        SelectionKey key = channel.register(selector, SelectionKey.OP_READ);
+        RespConnection connection = new RespConnection(++connectionSequence, channel, key);
+        key.attach(connection);
+        connections.add(connection);
+    }
+
+    private void read(RespConnection connection) {
+        try {
+            readBuffer.clear();
+            int read = connection.channel.read(readBuffer);
+            if (read < 0) {
+                closeConnection(connection);
+                return;
+            }
+            if (connection.protocolFailed) {
+                return; // 에러 응답 후 끊길 연결 - 더 해석하지 않음
+            }
+            readBuffer.flip();
+            connection.parser.feed(readBuffer);
+
+            List<byte[]> arguments;
+            while ((arguments = connection.parser.next()) != null) {
+                onCommand(connection, arguments);
+            }
+        } catch (RespError e) {
+            // 프로토콜 오류는 Redis처럼 에러를 보내고 연결을 끊는다
+            // 앞서 받은 명령들의 응답 뒤에 나가도록 실행 순서(lastExecutionDueNanos)를 따르고, 전송도 send 경로(지연/분할/정지)를 탄다
+            RespWriter writer = new RespWriter(connection.resp3);
+            writer.error(e.getMessage());
+            byte[] error = writer.toByteArray();
+            connection.protocolFailed = true;
+            long due = Math.max(connection.lastExecutionDueNanos, System.nanoTime());
+            connection.lastExecutionDueNanos = due;
+            schedule(due, () -> send(connection, error, true));
+        } catch (IOException e) {
+            closeConnection(connection);
+        }
+    }
+
+    private void onCommand(RespConnection connection, List<byte[]> arguments) {
+        String name = RespDataStore.text(arguments.get(0)).toUpperCase(Locale.ROOT);
+        long latency = commandLatencies.getOrDefault(name, defaultLatency).sampleNanos(random);
+        long due = Math.max(connection.lastExecutionDueNanos, System.nanoTime() + latency);
+        connection.lastExecutionDueNanos = due;
+        schedule(due, () -> execute(connection, name, arguments));
+    }
+
+    private void execute(RespConnection connection, String name, List<byte[]> arguments) {
+        if (!connection.isOpen()) {
+            return;
+        }
+        long pausedUntil = pausedUntilNanos;
+        if (System.nanoTime() < pausedUntil) {
+            // 정지 중 -> 정지가 끝나는 시각으로 미룬다 (큐에서 꺼낸 순서대로 다시 넣으므로 순서 유지)
+            connection.lastExecutionDueNanos = Math.max(connection.lastExecutionDueNanos, pausedUntil);
+            schedule(pausedUntil, () -> execute(connection, name, arguments));
+            return;
+        }
+        RespWriter writer = new RespWriter(connection.resp3);
+        AtomicInteger failures = injectedFailures.get(name);
+        if (failures != null && failures.getAndUpdate(remaining -> Math.max(remaining - 1, 0)) > 0) {
+            writer.error("ERR injected fault for " + name);
+        } else {
+            try {
+                commandHandler.handle(connection, name, arguments, writer);
+            } catch (RespError e) {
+                writer = new RespWriter(connection.resp3);
+                writer.error(e.getMessage());
+            } catch (RuntimeException e) {
+                // 스크립트 구현 버그 등으로 루프 스레드가 죽지 않도록 에러 응답으로 바꾼다
+                writer = new RespWriter(connection.resp3);
+                writer.error("ERR " + e);
+            }
+        }
+        Duration stall = blackholedCommands.get(name);
+        if (stall != null) {
+            stall(connection, stall); // 이 응답부터 붙잡힘
+        }
+        if (writer.size() > 0) {
+            send(connection, writer.toByteArray());
+        }
+    }
+
+    /**
+     * 연결의 응답 전송을 멈춘다. 여러 번 걸리면 가장 늦은 해제 시각을 따른다.
+     */
+    private void stall(RespConnection connection, Duration stall) {
+        long now = System.nanoTime();
+        long until = stall == STALL_UNTIL_DROPPED || stall.toNanos() > Long.MAX_VALUE - now
+                ? Long.MAX_VALUE : now + stall.toNanos();
+        connection.stalled = true;
+        connection.stallUntilNanos = Math.max(connection.stallUntilNanos, until);
+        if (until != Long.MAX_VALUE) {
+            schedule(until, () -> releaseStall(connection));
+        }
+    }
+
+    /**
+     * 해제 시각이 지났으면 붙잡아 둔 응답을 순서대로 보낸다.
+     */
+    private void releaseStall(RespConnection connection) {
+        if (!connection.stalled || !connection.isOpen() || System.nanoTime() < connection.stallUntilNanos) {
+            return; // 이미 해제됨, 끊긴 연결, 또는 더 늦게 걸린 정지가 있음
+        }
+        connection.stalled = false;
+        RespConnection.HeldReply held;
+        while ((held = connection.heldReplies.poll()) != null) {
+            send(connection, held.bytes(), held.closeAfterFlush());
+        }
+    }
+
+    /**
+     * 응답/푸시 메시지 전송 (패킷 지연, 분할 설정 적용)
+     */
+    void send(RespConnection connection, byte[] bytes) {
+        send(connection, bytes, false);
+    }
+
+    /**
+     * @param closeAfterFlush : 이 응답을 다 보낸 뒤 연결을 끊는다 (프로토콜 오류)
+     */
+    private void send(RespConnection connection, byte[] bytes, boolean closeAfterFlush) {
+        if (connection.stalled) {
+            connection.heldReplies.add(new RespConnection.HeldReply(bytes, closeAfterFlush));
+            return;
+        }
+        long now = System.nanoTime();
+        long delay = packetDelay.sampleNanos(random);
+        int fragment = fragmentSize;
+        if (delay == 0 && fragment <= 0 && connection.lastSendDueNanos <= now) {
+            enqueue(connection, bytes, closeAfterFlush);
+            return;
+        }
+
+        long due = Math.max(connection.lastSendDueNanos, now + delay);
+        if (fragment <= 0) {
+            schedule(due, () -> enqueue(connection, bytes, closeAfterFlush));
+        } else {
+            for (int offset = 0; offset < bytes.length; offset += fragment) {
+                int end = Math.min(offset + fragment, bytes.length);
+                byte[] chunk = Arrays.copyOfRange(bytes, offset, end);
+                boolean last = end == bytes.length;
+                schedule(due, () -> enqueue(connection, chunk, closeAfterFlush && last));
+                due += fragmentGapNanos;
+            }
+            due -= fragmentGapNanos;
+        }
+        connection.lastSendDueNanos = due;
+    }
+
+    private static void enqueue(RespConnection connection, byte[] bytes, boolean closeAfterFlush) {
+        if (closeAfterFlush) {
+            connection.closeAfterFlush = true;
+        }
+        connection.enqueue(bytes);
+    }
+
+    /**
+     * PUBLISH - 채널을 구독 중인 모든 연결에 메시지를 푸시한다.
+     * @return : 메시지를 받은 연결 수
+     */
+    int publish(String channel, byte[] message) {
+        int receivers = 0;
+        for (RespConnection connection : connections) {
+            if (connection.isOpen() && connection.subscriptions.contains(channel)) {
+                RespWriter writer = new RespWriter(connection.resp3);
+                writer.push(3);
+                writer.bulk("message");
+                writer.bulk(channel);
+                writer.bulk(message);
+                send(connection, writer.toByteArray());
+                receivers++;
+            }
+        }
+        return receivers;
+    }
+
+    private void closeConnection(RespConnection connection) {
+        connection.close();
+        connections.remove(connection);
+    }
+
+    private void schedule(long dueNanos, Runnable action) {
+        timedTasks.add(new TimedTask(dueNanos, ++taskSequence, action));
+    }
+
+    private void runDueTasks() {
+        long now = System.nanoTime();
+        TimedTask task;
+        while ((task = timedTasks.peek()) != null && task.dueNanos <= now) {
+            timedTasks.poll();
+            task.action.run();
+        }
+    }
+
+    private void runOnLoop(Runnable action) {
+        loopActions.add(action);
+        selector.wakeup();
+    }
+
+    private record TimedTask(long dueNanos, long sequence, Runnable action) implements Comparable<TimedTask> {
+        @Override
+        public int compareTo(TimedTask other) {
+            int byDue = Long.compare(dueNanos, other.dueNanos);
+            return byDue != 0 ? byDue : Long.compare(sequence, other.sequence);
+        }
+    }
+}
@@ -0,0 +1,156 @@
+package daiseek.redis_selfstudy.benchmark.resp;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * 응답 인코더 (서버 -> 클라이언트)
+ * RESP2/RESP3 차이는 이 클래스 안에서만 처리한다.
+ * - null: RESP2 "$-1" / RESP3 "_"
+ * - map: RESP2 평평한 배열(키, 값, 키, 값...) / RESP3 "%"
+ * - push(pub/sub 메시지): RESP2 배열 / RESP3 ">"
+ * double 값(ZSCORE, WITHSCORES 등)은 두 프로토콜 모두 bulk string으로 보낸다. (클라이언트가 둘 다 해석 가능)
+ */
+final class RespWriter {
+
+    private static final byte[] CRLF = {'\r', '\n'};
+
+    private boolean resp3;
+    private byte[] buffer = new byte[256];
+    private int size;
+
+    RespWriter(boolean resp3) {
+        this.resp3 = resp3;
+    }
+
+    /**
+     * HELLO 응답은 바뀐 프로토콜로 인코딩해야 하므로, 쓰기 전에 프로토콜을 바꿀 수 있게 한다.
+     */
+    void protocol(boolean resp3) {
+        this.resp3 = resp3;
+    }
+
+    void simple(String value) {
+        line('+', value);
+    }
+
+    void ok() {
+        simple("OK");
+    }
+
+    void error(String message) {
+        line('-', message);
+    }
+
+    void integer(long value) {
+        line(':', Long.toString(value));
+    }
+
+    void bulk(byte[] value) {
+        if (value == null) {
+            nil();
+            return;
+        }
+        line('$', Integer.toString(value.length));
+        write(value);
+        write(CRLF);
+    }
+
+    void bulk(String value) {
+        bulk(value == null ? null : value.getBytes(StandardCharsets.ISO_8859_1));
+    }
+
+    void doubleValue(double value) {
+        bulk(formatDouble(value));
+    }
+
+    void nil() {
+        if (resp3) {
+            write(new byte[]{'_', '\r', '\n'});
+        } else {
+            line('$', "-1");
+        }
+    }
+
+    void array(int count) {
+        line('*', Integer.toString(count));
+    }
+
+    void map(int entries) {
+        if (resp3) {
+            line('%', Integer.toString(entries));
+        } else {
+            array(entries * 2);
+        }
+    }
+
+    void push(int count) {
+        line(resp3 ? '>' : '*', Integer.toString(count));
+    }
+
+    /**
+     * 스크립트 반환값을 Lua -> RESP 변환 규칙처럼 인코딩한다.
+     * Long/Integer -> 정수, String/byte[] -> bulk, List -> 배열, null/false -> nil, true -> 1
+     */
+    void object(Object value) {
+        if (value == null || Boolean.FALSE.equals(value)) {
+            nil();
+        } else if (Boolean.TRUE.equals(value)) {
+            integer(1);
+        } else if (value instanceof Number number) {
+            integer(number.longValue());
+        } else if (value instanceof byte[] bytes) {
+            bulk(bytes);
+        } else if (value instanceof String string) {
+            bulk(string);
+        } else if (value instanceof List<?> list) {
+            array(list.size());
+            for (Object element : list) {
+                object(element);
+            }
+        } else {
+            throw new IllegalArgumentException("지원하지 않는 스크립트 반환 타입: " + value.getClass());
+        }
+    }
+
+    int size() {
+        return size;
+    }
+
+    byte[] toByteArray() {
+        return Arrays.copyOf(buffer, size);
+    }
+
+    static String formatDouble(double value) {
+        if (Double.isInfinite(value)) {
+            return value > 0 ? "inf" : "-inf";
+        }
+        if (value == Math.rint(value) && Math.abs(value) < 1e15) {
+            return Long.toString((long) value);
+        }
+        return Double.toString(value);
+    }
+
+    private void line(char type, String content) {
+        ensure(content.length() + 3);
+        buffer[size++] = (byte) type;
+        for (int i = 0; i < content.length(); i++) {
+            buffer[size++] = (byte) content.charAt(i);
+        }
+        buffer[size++] = '\r';
+        buffer[size++] = '\n';
+    }
+
+    private void write(byte[] bytes) {
+        ensure(bytes.length);
+        System.arraycopy(bytes, 0, buffer, size, bytes.length);
+        size += bytes.length;
+    }
+
+    private void ensure(int extra) {
+        if (size + extra > buffer.length) {
+            buffer = Arrays.copyOf(buffer, Math.max(buffer.length * 2, size + extra));
+        }
+    }
+}
@@ -0,0 +1,48 @@
+package daiseek.redis_selfstudy.benchmark.resp;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.HexFormat;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * EVAL/EVALSHA 지원
+ * 이 서버는 Lua 인터프리터를 내장하지 않는다.
+ * 대신 스크립트 본문의 SHA1 -> 같은 동작을 하는 Java 구현(ScriptHandler)을 등록해 두고, EVAL/EVALSHA가 오면 그걸 실행한다.
+ * SHA1은 Redis/Spring(DefaultRedisScript.getSha1)과 같은 방식(UTF-8 본문의 SHA1 hex)이라 EVALSHA도 그대로 맞는다.
+ * 등록되지 않은 스크립트는 에러로 응답한다.
+ */
+public final class ScriptRegistry {
+
+    /**
+     * Lua 스크립트와 같은 동작을 하는 Java 구현
+     * 서버 루프 스레드에서 실행되므로 실제 Redis처럼 원자적이다.
+     * 반환값은 RespWriter.object 규칙으로 인코딩된다. (Long -> 정수, String -> bulk, List -> 배열, null -> nil)
+     */
+    @FunctionalInterface
+    public interface ScriptHandler {
+        Object run(RespDataStore store, List<String> keys, List<String> args);
+    }
+
+    private final Map<String, ScriptHandler> handlers = new ConcurrentHashMap<>();
+
+    public ScriptRegistry register(String scriptText, ScriptHandler handler) {
+        handlers.put(sha1(scriptText.getBytes(StandardCharsets.UTF_8)), handler);
+        return this;
+    }
+
+    ScriptHandler find(String sha1) {
+        return handlers.get(sha1.toLowerCase());
+    }
+
+    static String sha1(byte[] script) {
+        try {
+            return HexFormat.of().formatHex(MessageDigest.getInstance("SHA-1").digest(script));
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-1을 사용할 수 없습니다.", e);
+        }
+    }
+}
@@ -0,0 +1,148 @@
+package daiseek.redis_selfstudy.benchmark.resp;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableSet;
+import java.util.TreeSet;
+
+/**
+ * Sorted Set 값
+ * member -> score 조회용 HashMap과 (score, member) 정렬용 TreeSet을 함께 유지한다. (Redis의 dict + skiplist 구성과 같은 구조)
+ * member는 바이트를 ISO-8859-1로 옮긴 문자열이라서, String 비교 순서가 곧 Redis의 바이트 사전순이다.
+ */
+public final class SortedSetValue {
+
+    public record Entry(String member, double score) {
+    }
+
+    private static final Comparator<Entry> ORDER = Comparator.comparingDouble(Entry::score).thenComparing(Entry::member);
+
+    private final Map<String, Double> scores = new HashMap<>();
+    private final TreeSet<Entry> ordered = new TreeSet<>(ORDER);
+
+    /**
+     * @return : 새로 추가된 member면 true
+     */
+    public boolean add(String member, double score) {
+        Double previous = scores.put(member, score);
+        if (previous != null) {
+            ordered.remove(new Entry(member, previous));
+        }
+        ordered.add(new Entry(member, score));
+        return previous == null;
+    }
+
+    public double increment(String member, double delta) {
+        Double previous = scores.get(member);
+        double score = (previous != null ? previous : 0.0) + delta;
+        add(member, score);
+        return score;
+    }
+
+    public boolean remove(String member) {
+        Double previous = scores.remove(member);
+        if (previous == null) {
+            return false;
+        }
+        ordered.remove(new Entry(member, previous));
+        return true;
+    }
+
+    public Double score(String member) {
+        return scores.get(member);
+    }
+
+    public int size() {
+        return scores.size();
+    }
+
+    public Map<String, Double> asMap() {
+        return scores;
+    }
+
+    /**
+     * 순위(rank) 범위 조회 - ZRANGE / ZREVRANGE (음수 인덱스 지원)
+     */
+    public List<Entry> rangeByRank(long startIndex, long stopIndex, boolean reverse) {
+        int size = size();
+        long start = startIndex < 0 ? size + startIndex : startIndex;
+        long stop = stopIndex < 0 ? size + stopIndex : stopIndex;
+        start = Math.max(start, 0);
+        stop = Math.min(stop, size - 1L);
+
+        List<Entry> result = new ArrayList<>();
+        if (start > stop) {
+            return result;
+        }
+        long rank = 0;
+        for (Entry entry : reverse ? ordered.descendingSet() : ordered) {
+            if (rank > stop) {
+                break;
+            }
+            if (rank >= start) {
+                result.add(entry);
+            }
+            rank++;
+        }
+        return result;
+    }
+
+    /**
+     * 점수 범위 조회 - ZRANGEBYSCORE / ZREVRANGEBYSCORE
+     */
+    public List<Entry> rangeByScore(double min, boolean minExclusive, double max, boolean maxExclusive,
+                                    long offset, long count, boolean reverse) {
+        NavigableSet<Entry> view = reverse ? ordered.descendingSet() : ordered;
+        List<Entry> result = new ArrayList<>();
+        long skipped = 0;
+        for (Entry entry : view) {
+            double score = entry.score();
+            boolean aboveMin = minExclusive ? score > min : score >= min;
+            boolean belowMax = maxExclusive ? score < max : score <= max;
+            if (!aboveMin || !belowMax) {
+                if ((reverse && !aboveMin) || (!reverse && !belowMax)) {
+                    break; // 정렬되어 있으므로 범위를 지나면 끝
+                }
+                continue;
+            }
+            if (skipped++ < offset) {
+                continue;
+            }
+            if (count >= 0 && result.size() >= count) {
+                break;
+            }
+            result.add(entry);
+        }
+        return result;
+    }
+
+    /**
+     * 사전순 범위 조회 - ZRANGEBYLEX (모든 점수가 같다고 가정, Redis와 동일한 전제)
+     * min/max가 null이면 "-" / "+" (무한)
+     */
+    public List<Entry> rangeByLex(String min, boolean minExclusive, String max, boolean maxExclusive,
+                                  long offset, long count) {
+        List<Entry> result = new ArrayList<>();
+        long skipped = 0;
+        for (Entry entry : ordered) {
+            String member = entry.member();
+            if (min != null && (minExclusive ? member.compareTo(min) <= 0 : member.compareTo(min) < 0)) {
+                continue;
+            }
+            if (max != null && (maxExclusive ? member.compareTo(max) >= 0 : member.compareTo(max) > 0)) {
+                break;
+            }
+            if (skipped++ < offset) {
+                continue;
+            }
+            if (count >= 0 && result.size() >= count) {
+                break;
+            }
+            result.add(entry);
+        }
+        return result;
+    }
+}
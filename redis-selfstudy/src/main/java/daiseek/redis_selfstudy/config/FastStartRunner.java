@@ -0,0 +1,136 @@
+package daiseek.redis_selfstudy.config;
+
+import daiseek.redis_selfstudy.product.Product;
+import daiseek.redis_selfstudy.product.repository.ProductIndexRepository;
+import daiseek.redis_selfstudy.product.service.ProductService;
+import daiseek.redis_selfstudy.product.service.ProductServiceRouter;
+import daiseek.redis_selfstudy.product.service.ProductServiceV5;
+import daiseek.redis_selfstudy.product.service.ProductServiceV6;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.ApplicationArguments;
+import org.springframework.boot.ApplicationRunner;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.context.ApplicationContext;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.redis.connection.RedisConnection;
+import org.springframework.data.redis.connection.RedisConnectionFactory;
+import org.springframework.data.redis.core.RedisTemplate;
+import org.springframework.data.redis.core.script.RedisScript;
+import org.springframework.stereotype.Component;
+
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Note. fast-start 모드 (app.fast-start.enabled=true)
+ * 스케일 아웃 직후 첫 요청이 느린 이유는 대부분 "처음 한 번" 비용이다.
+ * - Redis 연결 핸드셰이크 (LettuceConnectionFactory는 기본적으로 첫 명령 때 연결)
+ * - Jackson 직렬화기/Product 타입 정보 클래스 로딩
+ * - 전략 빈(ProductService)과 캐시 프록시 경로의 첫 실행
+ * - Lua 스크립트 첫 EVALSHA 실패(NOSCRIPT) 후 EVAL 재전송
+ *
+ * ApplicationRunner는 ApplicationReadyEvent 전에 실행되므로, 준비 상태(readiness)가 되기 전에 이 비용을 모두 치른다.
+ * 연결 자체는 RedisConfig에서 setEagerInitialization으로 컨텍스트 시작 시점에 맺는다.
+ *
+ * 전략 빈은 예열용 상품(ID 0, 실제 상품 ID는 1부터)을 캐시에 넣어두고 조회해서 캐시 히트 경로만 실행한다.
+ * ProductRepositoryV1.findById(500ms 지연)는 호출하지 않는다.
+ *
+ * ApplicationReadyEvent(모든 ApplicationRunner 완료 후)에 READY_MARKER를 로그로 남긴다. (fast-start 여부와 무관)
+ * scripts/startup-benchmark.sh는 첫 HTTP 응답이 아니라 이 줄을 기다려 "ready"를 잰다.
+ */
+@Component
+public class FastStartRunner implements ApplicationRunner {
+
+    public static final String READY_MARKER = "redis-selfstudy ready";
+
+    private static final long WARM_UP_ID = 0L;
+    private static final List<RedisScript<?>> SCRIPTS = List.of(
+            ProductServiceV5.COMPARE_AND_SET_SCRIPT, ProductServiceV5.TOMBSTONE_SCRIPT,
+            ProductServiceV5.WRITE_SCRIPT, ProductServiceV6.WRITE_SCRIPT, ProductServiceV6.DELETE_SCRIPT,
+            ProductIndexRepository.INDEX_SCRIPT, ProductIndexRepository.UNINDEX_SCRIPT, ProductIndexRepository.SET_AND_INDEX_SCRIPT,
+            ProductIndexRepository.EVICT_AND_INDEX_SCRIPT, ProductIndexRepository.EVICT_AND_UNINDEX_SCRIPT,
+            ProductIndexRepository.PRICE_PAGE_SCRIPT);
+
+    private final boolean enabled;
+    private final ApplicationContext applicationContext;
+    private final RedisConnectionFactory connectionFactory;
+    private final RedisTemplate<Long, Object> productRedisTemplate;
+    private final RedisTemplate<String, Product> productBucketRedisTemplate;
+    private final ProductServiceV6 productServiceV6;
+    private final CacheManager cacheManager;
+
+    public FastStartRunner(@Value("${app.fast-start.enabled:false}") boolean enabled,
+                           ApplicationContext applicationContext,
+                           RedisConnectionFactory connectionFactory,
+                           RedisTemplate<Long, Object> productRedisTemplate,
+                           RedisTemplate<String, Product> productBucketRedisTemplate,
+                           ProductServiceV6 productServiceV6,
+                           CacheManager cacheManager) {
+        this.enabled = enabled;
+        this.applicationContext = applicationContext;
+        this.connectionFactory = connectionFactory;
+        this.productRedisTemplate = productRedisTemplate;
+        this.productBucketRedisTemplate = productBucketRedisTemplate;
+        this.productServiceV6 = productServiceV6;
+        this.cacheManager = cacheManager;
+    }
+
+    @Override
+    public void run(ApplicationArguments args) {
+        if (!enabled) {
+            return;
+        }
+        long startedAt = System.nanoTime();
+
+        // 1. 연결 확인 + 스크립트 미리 등록 (첫 EVALSHA가 NOSCRIPT로 한 번 더 왕복하지 않도록)
+        try (RedisConnection connection = connectionFactory.getConnection()) {
+            connection.ping();
+            for (RedisScript<?> script : SCRIPTS) {
+                connection.scriptingCommands().scriptLoad(script.getScriptAsString().getBytes(StandardCharsets.UTF_8));
+            }
+        }
+
+        // 2. 직렬화 왕복: 상품 키 템플릿(V1~V3, V5와 같은 product:{id} 키/값 형식)
+        Product warmUpProduct = new Product(WARM_UP_ID, "fast-start", 0);
+        productRedisTemplate.opsForValue().set(WARM_UP_ID, warmUpProduct, 30, TimeUnit.SECONDS);
+        productRedisTemplate.opsForValue().get(WARM_UP_ID);
+
+        // 3. 버킷 Hash(V6): 실제 쓰기와 같은 경로(HSET + 만료 설정)로 넣는다.
+        //    예열 상품은 실제 상품이 있는 버킷에 들어가므로, 정리 전에 실패해도 남지 않게 필드 만료(또는 버킷 만료)를 건다.
+        String warmUpBucketKey = productServiceV6.bucketKey(WARM_UP_ID);
+        productServiceV6.cache(warmUpProduct);
+
+        // 4. 애노테이션 캐시(V4): product::{id} 키/값 형식
+        Cache productCache = cacheManager.getCache("product");
+        if (productCache != null) {
+            productCache.put(WARM_UP_ID, warmUpProduct);
+        }
+
+        // 5. 전략 빈 생성 + 캐시 히트 경로 한 번씩 실행 (지연 초기화 설정이어도 여기서 모두 만들어짐)
+        Map<String, ProductService> productServices = applicationContext.getBeansOfType(ProductService.class);
+        productServices.forEach((beanName, productService) -> {
+            if (!(productService instanceof ProductServiceRouter)) { // 라우터는 위임만 하므로 제외 (통계에 예열 요청이 섞이지 않도록)
+                productService.getProductById(WARM_UP_ID);
+            }
+        });
+
+        // 6. 예열용 데이터 정리
+        productRedisTemplate.delete(WARM_UP_ID);
+        productBucketRedisTemplate.opsForHash().delete(warmUpBucketKey, WARM_UP_ID);
+        if (productCache != null) {
+            productCache.evict(WARM_UP_ID);
+        }
+
+        System.out.println("fast-start 예열 완료: 전략 빈 " + productServices.keySet() + ", "
+                + TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - startedAt) + "ms");
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void onReady(ApplicationReadyEvent event) {
+        System.out.println(READY_MARKER + " (fast-start=" + enabled + ", " + event.getTimeTaken().toMillis() + "ms)");
+    }
+}
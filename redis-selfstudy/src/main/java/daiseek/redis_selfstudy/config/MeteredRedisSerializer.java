@@ -0,0 +1,45 @@
+package daiseek.redis_selfstudy.config;
+
+import daiseek.redis_selfstudy.jfr.SerializedBytesTracker;
+import org.springframework.data.redis.serializer.RedisSerializer;
+import org.springframework.data.redis.serializer.SerializationException;
+
+/**
+ * 값 직렬화기를 감싸서 읽고 쓴 바이트 수를 SerializedBytesTracker에 더한다.
+ * JFR 상품 캐시 이벤트(ProductCacheEvent)의 serializedBytes 값으로 쓰인다.
+ * 키 직렬화기에는 쓰지 않는다. (값 크기만 보려는 것)
+ */
+public final class MeteredRedisSerializer<T> implements RedisSerializer<T> {
+
+    private final RedisSerializer<T> delegate;
+
+    private MeteredRedisSerializer(RedisSerializer<T> delegate) {
+        this.delegate = delegate;
+    }
+
+    public static <T> MeteredRedisSerializer<T> of(RedisSerializer<T> delegate) {
+        return new MeteredRedisSerializer<>(delegate);
+    }
+
+    @Override
+    public byte[] serialize(T value) throws SerializationException {
+        byte[] bytes = delegate.serialize(value);
+        if (bytes != null) {
+            SerializedBytesTracker.record(bytes.length);
+        }
+        return bytes;
+    }
+
+    @Override
+    public T deserialize(byte[] bytes) throws SerializationException {
+        if (bytes != null) {
+            SerializedBytesTracker.record(bytes.length);
+        }
+        return delegate.deserialize(bytes);
+    }
+
+    @Override
+    public Class<?> getTargetType() {
+        return delegate.getTargetType();
+    }
+}
@@ -0,0 +1,154 @@
+package daiseek.redis_selfstudy.config;
+
+import org.springframework.data.redis.serializer.RedisSerializer;
+import org.springframework.data.redis.serializer.SerializationException;
+
+import java.nio.charset.StandardCharsets;
+
+/**
+ * Note. 상품 키 전용 코덱 (Long id <-> "{접두어}{id}" 바이트)
+ * 기존 방식: "product:" + id 로 String을 만들고 -> StringRedisSerializer가 다시 byte[]로 인코딩
+ *   => 요청마다 StringBuilder/String/byte[] 가 새로 만들어진다.
+ * 이 코덱: 접두어 바이트와 10진수 숫자를 byte[]에 바로 써넣는다. String을 거치지 않는다.
+ *   자주 쓰이는 작은 ID(0 ~ CACHE_SIZE-1)는 미리 만들어 둔 byte[]를 그대로 돌려주므로 할당이 0이다.
+ *
+ * 접두어마다 인스턴스가 하나씩 있다.
+ * - INSTANCE : "product:"  (V1~V3, V5의 RedisTemplate 키)
+ * - withPrefix("product::") : @Cacheable 캐시 키 (ProductRedisCache, V4)
+ *
+ * 주의: 캐시된 byte[]는 공유되므로 절대 수정하면 안 된다. (Lettuce는 키 배열을 읽기만 한다)
+ */
+public final class ProductKeyCodec implements RedisSerializer<Long> {
+
+    public static final String PREFIX = "product:";
+    private static final int CACHE_SIZE = 4096;
+
+    public static final ProductKeyCodec INSTANCE = new ProductKeyCodec(PREFIX);
+
+    private final String prefix;
+    private final byte[] prefixBytes;
+    private final byte[][] keyCache = new byte[CACHE_SIZE][];
+
+    private ProductKeyCodec(String prefix) {
+        this.prefix = prefix;
+        this.prefixBytes = prefix.getBytes(StandardCharsets.UTF_8);
+        for (int id = 0; id < CACHE_SIZE; id++) {
+            keyCache[id] = encodeUncached(id);
+        }
+    }
+
+    /**
+     * 다른 접두어용 코덱을 만든다. 미리 만든 키 배열을 들고 있으므로 호출하는 쪽에서 한 번만 만들어 재사용한다.
+     */
+    public static ProductKeyCodec withPrefix(String prefix) {
+        return PREFIX.equals(prefix) ? INSTANCE : new ProductKeyCodec(prefix);
+    }
+
+    /**
+     * 상품 ID를 "product:{id}" 바이트로 변환한다.
+     */
+    public static byte[] encode(long id) {
+        return INSTANCE.encodeKey(id);
+    }
+
+    /**
+     * "product:{id}" 바이트에서 상품 ID를 꺼낸다.
+     */
+    public static long decode(byte[] bytes) {
+        return INSTANCE.decodeKey(bytes);
+    }
+
+    public String prefix() {
+        return prefix;
+    }
+
+    /**
+     * 상품 ID를 "{접두어}{id}" 바이트로 변환한다.
+     */
+    public byte[] encodeKey(long id) {
+        if (id >= 0 && id < CACHE_SIZE) {
+            return keyCache[(int) id];
+        }
+        return encodeUncached(id);
+    }
+
+    /**
+     * "{접두어}{id}" 바이트에서 상품 ID를 꺼낸다.
+     * 숫자가 하나도 없거나("product:", "product:-") 숫자 이외의 문자가 있으면 거부한다.
+     */
+    public long decodeKey(byte[] bytes) {
+        if (bytes.length <= prefixBytes.length) {
+            throw notAKey(bytes);
+        }
+        for (int i = 0; i < prefixBytes.length; i++) {
+            if (bytes[i] != prefixBytes[i]) {
+                throw notAKey(bytes);
+            }
+        }
+
+        int index = prefixBytes.length;
+        boolean negative = bytes[index] == '-';
+        if (negative) {
+            index++;
+        }
+        if (index == bytes.length) {
+            throw notAKey(bytes); // 부호만 있고 숫자가 없음
+        }
+        long value = 0;
+        for (; index < bytes.length; index++) {
+            int digit = bytes[index] - '0';
+            if (digit < 0 || digit > 9) {
+                throw notAKey(bytes);
+            }
+            value = value * 10 - digit; // 음수로 누적하면 Long.MIN_VALUE까지 오버플로 없이 표현 가능
+        }
+        return negative ? value : -value;
+    }
+
+    @Override
+    public byte[] serialize(Long id) throws SerializationException {
+        return id == null ? null : encodeKey(id);
+    }
+
+    @Override
+    public Long deserialize(byte[] bytes) throws SerializationException {
+        return bytes == null ? null : decodeKey(bytes);
+    }
+
+    @Override
+    public Class<?> getTargetType() {
+        return Long.class;
+    }
+
+    private SerializationException notAKey(byte[] bytes) {
+        return new SerializationException("상품 키가 아닙니다 (" + prefix + "{id}): " + new String(bytes, StandardCharsets.UTF_8));
+    }
+
+    private byte[] encodeUncached(long id) {
+        int digits = digitCount(id);
+        byte[] key = new byte[prefixBytes.length + digits];
+        System.arraycopy(prefixBytes, 0, key, 0, prefixBytes.length);
+
+        // 뒤에서부터 숫자를 채운다. 음수로 계산해 Long.MIN_VALUE도 처리
+        long remaining = id < 0 ? id : -id;
+        int position = key.length;
+        do {
+            key[--position] = (byte) ('0' - (remaining % 10));
+            remaining /= 10;
+        } while (remaining != 0);
+        if (id < 0) {
+            key[--position] = '-';
+        }
+        return key;
+    }
+
+    private static int digitCount(long id) {
+        long remaining = id < 0 ? id : -id;
+        int count = id < 0 ? 2 : 1; // 음수면 '-' 한 자리 추가
+        while (remaining <= -10) {
+            remaining /= 10;
+            count++;
+        }
+        return count;
+    }
+}
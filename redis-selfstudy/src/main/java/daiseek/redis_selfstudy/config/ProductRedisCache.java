@@ -0,0 +1,283 @@
+package daiseek.redis_selfstudy.config;
+
+import daiseek.redis_selfstudy.jfr.CacheOutcomeTracker;
+import daiseek.redis_selfstudy.jfr.CacheOutcomeTracker.Outcome;
+import org.springframework.data.redis.cache.RedisCache;
+import org.springframework.data.redis.cache.RedisCacheConfiguration;
+import org.springframework.data.redis.cache.RedisCacheWriter;
+import org.springframework.data.redis.connection.RedisConnection;
+import org.springframework.data.redis.connection.RedisConnectionFactory;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Supplier;
+
+/**
+ * Note. 애노테이션 기반 캐시(@Cacheable/@CacheEvict)용 RedisCache 확장
+ * 1. 키 단위 로딩 잠금 (@Cacheable(sync = true))
+ *    - 기본 RedisCache는 캐시 전체에 하나의 락을 건다. 서로 다른 상품을 읽어도 줄을 서게 된다.
+ *    - 여기서는 같은 키를 읽는 요청만 하나로 묶는다. 첫 요청(리더)만 DB를 조회하고 나머지는 결과를 기다린다.
+ * 2. 비동기 조회 (CompletableFuture 반환 메서드)
+ *    - 같은 키에 대한 동시 로딩을 하나의 Future로 묶고, 저장도 비동기(RedisCacheWriter.store)로 처리한다.
+ * 3. 묶음 무효화 (@CacheEvict)
+ *    - 동시에 들어온 evict 요청을 모아 DEL 한 번(다중 키)으로 보낸다. (group commit 방식)
+ *    - 먼저 락을 잡은 스레드가 그동안 쌓인 키를 모두 지우고, 나머지는 자기 키가 지워질 때까지 기다린다.
+ *
+ * 4. 상품 ID(Long) 키는 ProductKeyCodec으로 바로 인코딩
+ *    - 기본 RedisCache는 키를 String으로 바꾸고 "product::"를 붙인 뒤 StringRedisSerializer로 다시 인코딩한다.
+ *    - 조회/저장/무효화 경로에서 Long 키는 "{접두어}{id}" 바이트를 바로 만든다. (결과 바이트는 기본 방식과 같음)
+ *    - 생성 시 두 방식의 결과가 같은지 확인하고, 다르면(접두어 미사용, 다른 키 직렬화기 등) 기본 방식을 쓴다.
+ *
+ * null 값은 캐싱하지 않는다. (Optional.empty 결과가 예외 없이 그냥 캐시 미스로 남도록)
+ */
+public class ProductRedisCache extends RedisCache {
+
+    private static final int MAX_EVICTION_BATCH = 256;
+    private static final long EVICTION_WAIT_MILLIS = 1;
+
+    private final RedisConnectionFactory connectionFactory;
+    private final ProductKeyCodec keyCodec; // Long 키 전용, 기본 방식과 결과가 다르면 null
+    private final ConcurrentHashMap<Object, CompletableFuture<Object>> loadsInFlight = new ConcurrentHashMap<>();
+    private final ConcurrentLinkedQueue<PendingEviction> pendingEvictions = new ConcurrentLinkedQueue<>();
+    private final ReentrantLock evictionFlushLock = new ReentrantLock();
+
+    protected ProductRedisCache(String name, RedisCacheWriter cacheWriter, RedisCacheConfiguration cacheConfiguration,
+                                RedisConnectionFactory connectionFactory) {
+        super(name, cacheWriter, cacheConfiguration);
+        this.connectionFactory = connectionFactory;
+
+        ProductKeyCodec codec = cacheConfiguration.usePrefix()
+                ? ProductKeyCodec.withPrefix(cacheConfiguration.getKeyPrefixFor(name)) : null;
+        boolean sameBytes = codec != null
+                && Arrays.equals(codec.encodeKey(1L), serializeCacheKey(createCacheKey(1L)))
+                && Arrays.equals(codec.encodeKey(-12345L), serializeCacheKey(createCacheKey(-12345L)));
+        this.keyCodec = sameBytes ? codec : null;
+    }
+
+    /**
+     * 캐시 키 바이트. Long 키는 코덱으로 바로, 그 외는 기본 방식(String 변환 + 접두어 + 키 직렬화기)
+     */
+    private byte[] binaryKey(Object key) {
+        if (keyCodec != null && key instanceof Long id) {
+            return keyCodec.encodeKey(id);
+        }
+        return serializeCacheKey(createCacheKey(key));
+    }
+
+    @Override
+    protected Object lookup(Object key) {
+        byte[] value = getCacheWriter().get(getName(), binaryKey(key));
+        return value != null ? deserializeCacheValue(value) : null;
+    }
+
+    @Override
+    public void put(Object key, Object value) {
+        Object cacheValue = preProcessCacheValue(value);
+        if (cacheValue == null) {
+            throw new IllegalArgumentException("캐시 " + getName() + "은(는) null 값을 저장하지 않습니다. (키: " + key + ")");
+        }
+        Duration ttl = getCacheConfiguration().getTtlFunction().getTimeToLive(key, value);
+        getCacheWriter().put(getName(), binaryKey(key), serializeCacheValue(cacheValue), ttl);
+    }
+
+    /**
+     * 비동기 조회 (CompletableFuture 반환 메서드의 캐시 히트 확인)
+     */
+    @Override
+    public CompletableFuture<?> retrieve(Object key) {
+        if (keyCodec == null || !(key instanceof Long) || !getCacheWriter().supportsAsyncRetrieve()) {
+            return super.retrieve(key);
+        }
+        return getCacheWriter().retrieve(getName(), binaryKey(key))
+                .thenApply(value -> value != null ? toValueWrapper(deserializeCacheValue(value)) : null);
+    }
+
+    /**
+     * @Cacheable(sync = true) 경로. 같은 키의 동시 미스는 한 번만 로딩한다.
+     * 캐시 결과(히트 / 직접 로딩 / 다른 요청의 로딩 대기)를 CacheOutcomeTracker에 남긴다.
+     */
+    @Override
+    @SuppressWarnings("unchecked")
+    public <T> T get(Object key, Callable<T> valueLoader) {
+        ValueWrapper cached = get(key);
+        if (cached != null) {
+            CacheOutcomeTracker.record(Outcome.HIT);
+            return (T) cached.get();
+        }
+
+        CompletableFuture<Object> load = new CompletableFuture<>();
+        CompletableFuture<Object> inFlight = loadsInFlight.putIfAbsent(key, load);
+        if (inFlight != null) {
+            // 다른 요청이 이미 로딩 중 -> 그 결과를 같이 사용
+            CacheOutcomeTracker.record(Outcome.SHARED);
+            try {
+                return (T) inFlight.join();
+            } catch (CompletionException e) {
+                throw new ValueRetrievalException(key, valueLoader, e.getCause());
+            }
+        }
+
+        try {
+            // 앞선 리더가 방금 끝냈을 수 있으므로 한 번 더 확인
+            cached = get(key);
+            T value;
+            if (cached != null) {
+                CacheOutcomeTracker.record(Outcome.HIT);
+                value = (T) cached.get();
+            } else {
+                CacheOutcomeTracker.record(Outcome.MISS);
+                value = valueLoader.call();
+                if (value != null) {
+                    put(key, value);
+                }
+            }
+            load.complete(value);
+            return value;
+        } catch (Exception e) {
+            load.completeExceptionally(e);
+            throw new ValueRetrievalException(key, valueLoader, e);
+        } finally {
+            loadsInFlight.remove(key, load);
+        }
+    }
+
+    /**
+     * CompletableFuture 반환 메서드 + sync = true 경로.
+     * 조회, 로딩, 저장이 모두 비동기라서 요청 스레드를 막지 않는다.
+     */
+    @Override
+    @SuppressWarnings("unchecked")
+    public <T> CompletableFuture<T> retrieve(Object key, Supplier<CompletableFuture<T>> valueLoader) {
+        return retrieve(key).thenCompose(cached -> {
+            if (cached != null) {
+                return CompletableFuture.completedFuture((T) ((ValueWrapper) cached).get());
+            }
+
+            CompletableFuture<Object> load = new CompletableFuture<>();
+            CompletableFuture<Object> inFlight = loadsInFlight.putIfAbsent(key, load);
+            if (inFlight != null) {
+                return inFlight.thenApply(value -> (T) value);
+            }
+
+            // 로더가 바로 예외를 던지거나 null Future를 돌려줘도 load를 끝내고 맵에서 빼야 한다.
+            // (안 그러면 같은 키의 이후 요청이 모두 inFlight를 영원히 기다림)
+            CompletableFuture<T> loaded;
+            try {
+                loaded = valueLoader.get();
+                if (loaded == null) {
+                    throw new IllegalStateException("valueLoader가 null Future를 반환했습니다. 캐시: " + getName() + ", 키: " + key);
+                }
+            } catch (RuntimeException e) {
+                loadsInFlight.remove(key, load);
+                load.completeExceptionally(e);
+                return load.thenApply(value -> (T) value);
+            }
+
+            loaded
+                    .thenCompose(value -> value == null
+                            ? CompletableFuture.completedFuture(value)
+                            : storeAsync(key, value).thenApply(stored -> value))
+                    .whenComplete((value, failure) -> {
+                        loadsInFlight.remove(key, load);
+                        if (failure != null) {
+                            load.completeExceptionally(failure);
+                        } else {
+                            load.complete(value);
+                        }
+                    });
+            return load.thenApply(value -> (T) value);
+        });
+    }
+
+    /**
+     * @CacheEvict 경로. 동시에 들어온 무효화를 다중 키 DEL 한 번으로 묶는다.
+     * 호출한 스레드는 자기 키가 실제로 지워진 뒤에 반환된다. (무효화 직후 조회가 옛 값을 보지 않도록)
+     */
+    @Override
+    public void evict(Object key) {
+        PendingEviction eviction = new PendingEviction(binaryKey(key));
+        pendingEvictions.add(eviction);
+
+        while (!eviction.done().isDone()) {
+            if (evictionFlushLock.tryLock()) {
+                try {
+                    flushEvictions();
+                } finally {
+                    evictionFlushLock.unlock();
+                }
+            } else {
+                awaitEviction(eviction);
+            }
+        }
+        try {
+            eviction.done().join();
+        } catch (CompletionException e) {
+            // 묶음 DEL 실패는 호출한 쪽(@CacheEvict)에 원래 예외로 전달
+            if (e.getCause() instanceof RuntimeException cause) {
+                throw cause;
+            }
+            throw e;
+        }
+    }
+
+    private CompletableFuture<Void> storeAsync(Object key, Object value) {
+        byte[] binaryKey = binaryKey(key);
+        byte[] binaryValue = serializeCacheValue(value);
+        Duration ttl = getCacheConfiguration().getTtlFunction().getTimeToLive(key, value);
+        return getCacheWriter().store(getName(), binaryKey, binaryValue, ttl);
+    }
+
+    private void flushEvictions() {
+        List<PendingEviction> batch = new ArrayList<>();
+        PendingEviction next;
+        while (batch.size() < MAX_EVICTION_BATCH && (next = pendingEvictions.poll()) != null) {
+            batch.add(next);
+        }
+        if (batch.isEmpty()) {
+            return;
+        }
+
+        byte[][] keys = new byte[batch.size()][];
+        for (int i = 0; i < batch.size(); i++) {
+            keys[i] = batch.get(i).key();
+        }
+
+        try (RedisConnection connection = connectionFactory.getConnection()) {
+            connection.keyCommands().del(keys);
+            batch.forEach(eviction -> eviction.done().complete(null));
+            if (batch.size() > 1) {
+                System.out.println("ProductRedisCache: " + getName() + " 캐시 무효화 " + batch.size() + "건을 DEL 한 번으로 처리");
+            }
+        } catch (RuntimeException e) {
+            batch.forEach(eviction -> eviction.done().completeExceptionally(e));
+        }
+    }
+
+    private void awaitEviction(PendingEviction eviction) {
+        try {
+            eviction.done().get(EVICTION_WAIT_MILLIS, TimeUnit.MILLISECONDS);
+        } catch (TimeoutException | ExecutionException e) {
+            // 아직 안 끝났거나(다음 루프에서 직접 flush 시도) 실패(join에서 예외 전달)
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("캐시 무효화 대기 중 인터럽트 발생: " + getName(), e);
+        }
+    }
+
+    private record PendingEviction(byte[] key, CompletableFuture<Void> done) {
+        PendingEviction(byte[] key) {
+            this(key, new CompletableFuture<>());
+        }
+    }
+}
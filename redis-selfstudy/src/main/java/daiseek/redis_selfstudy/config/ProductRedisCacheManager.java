@@ -0,0 +1,32 @@
+package daiseek.redis_selfstudy.config;
+
+import org.springframework.data.redis.cache.RedisCache;
+import org.springframework.data.redis.cache.RedisCacheConfiguration;
+import org.springframework.data.redis.cache.RedisCacheManager;
+import org.springframework.data.redis.cache.RedisCacheWriter;
+import org.springframework.data.redis.connection.RedisConnectionFactory;
+
+import java.util.Map;
+
+/**
+ * 애노테이션 기반 캐시용 CacheManager
+ * 캐시 이름별 설정(TTL, 직렬화, 키 접두어)은 RedisCacheManager가 그대로 처리하고,
+ * 실제 캐시 객체만 ProductRedisCache(키 단위 잠금, 비동기 조회, 묶음 무효화)로 바꿔서 만든다.
+ */
+public class ProductRedisCacheManager extends RedisCacheManager {
+
+    private final RedisConnectionFactory connectionFactory;
+
+    public ProductRedisCacheManager(RedisConnectionFactory connectionFactory,
+                                    RedisCacheConfiguration defaultCacheConfiguration,
+                                    Map<String, RedisCacheConfiguration> cacheConfigurations) {
+        super(RedisCacheWriter.nonLockingRedisCacheWriter(connectionFactory), defaultCacheConfiguration, cacheConfigurations);
+        this.connectionFactory = connectionFactory;
+    }
+
+    @Override
+    protected RedisCache createRedisCache(String name, RedisCacheConfiguration cacheConfiguration) {
+        return new ProductRedisCache(name, getCacheWriter(), cacheConfiguration != null ? cacheConfiguration : getDefaultCacheConfiguration(),
+                connectionFactory);
+    }
+}
@@ -1,11 +1,20 @@
 package daiseek.redis_selfstudy.config;
 
+import com.fasterxml.jackson.annotation.JsonInclude;
+import com.fasterxml.jackson.databind.DeserializationFeature;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import daiseek.redis_selfstudy.jfr.RedisCommandEventListener;
+import daiseek.redis_selfstudy.product.Product;
+import io.lettuce.core.AbstractRedisClient;
 import io.lettuce.core.ClientOptions;
 import io.lettuce.core.SocketOptions;
+import io.lettuce.core.TimeoutOptions;
 import io.lettuce.core.resource.ClientResources;
+import org.springframework.cache.interceptor.KeyGenerator;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.data.redis.cache.RedisCacheConfiguration;
+import org.springframework.data.redis.cache.RedisCacheManager;
 import org.springframework.data.redis.connection.RedisConnectionFactory;
 import org.springframework.data.redis.connection.RedisStandaloneConfiguration;
 import org.springframework.data.redis.connection.lettuce.LettuceClientConfiguration;
@@ -13,10 +22,14 @@ import org.springframework.data.redis.connection.lettuce.LettuceConnectionFactor
 import org.springframework.data.redis.connection.lettuce.LettucePoolingClientConfiguration;
 import org.springframework.data.redis.core.RedisTemplate;
 import org.springframework.data.redis.serializer.GenericJackson2JsonRedisSerializer;
+import org.springframework.data.redis.serializer.GenericToStringSerializer;
+import org.springframework.data.redis.serializer.Jackson2JsonRedisSerializer;
 import org.springframework.data.redis.serializer.RedisSerializationContext;
 import org.springframework.data.redis.serializer.StringRedisSerializer;
 
 import java.time.Duration;
+import java.util.HashMap;
+import java.util.Map;
 
 @Configuration // Spring 설정 클래스임을 명시
 public class RedisConfig {
@@ -24,7 +37,8 @@ public class RedisConfig {
     @Bean
     public RedisConnectionFactory redisConnectionFactory(
             @org.springframework.beans.factory.annotation.Value("${spring.redis.host}") String redisHost,
-            @org.springframework.beans.factory.annotation.Value("${spring.redis.port}") int redisPort) {
+            @org.springframework.beans.factory.annotation.Value("${spring.redis.port}") int redisPort,
+            @org.springframework.beans.factory.annotation.Value("${app.fast-start.enabled:false}") boolean fastStartEnabled) {
 
         RedisStandaloneConfiguration standaloneConfiguration = new RedisStandaloneConfiguration();
         standaloneConfiguration.setHostName(redisHost);
@@ -33,6 +47,7 @@ public class RedisConfig {
         // 소켓 연결 타임아웃만 명시
         ClientOptions clientOptions = ClientOptions.builder()
                 .socketOptions(SocketOptions.builder().connectTimeout(Duration.ofSeconds(5)).build()) // 연결 타임아웃
+                .timeoutOptions(TimeoutOptions.enabled()) // 명령 타임아웃 시 명령 자체를 실패 처리 -> JFR Redis 명령 이벤트에 timeout으로 남음
                 .build();
 
         // 클라이언트 이름, 명령 타임아웃 등은 여기에 두겠습니다.
@@ -46,7 +61,21 @@ public class RedisConfig {
                 .build();
 
         LettuceConnectionFactory connectionFactory = new LettuceConnectionFactory(standaloneConfiguration, clientConfiguration);
+        // fast-start 모드: 첫 요청이 아니라 컨텍스트 시작(start) 시점에 공유 연결을 맺어 핸드셰이크 비용을 미리 치름
+        connectionFactory.setEagerInitialization(fastStartEnabled);
         connectionFactory.afterPropertiesSet();
+
+        // JFR: Redis 명령마다 RedisCommandEvent 기록 (녹화 중이 아닐 때는 바로 반환)
+        // 명령 리스너는 RedisClient에 직접 붙여야 하는데, RedisClient는 start() 때 만들어진다.
+        // afterPropertiesSet이 start까지 해주는지는 Spring Data Redis 버전/설정마다 다르므로 여기서 직접 시작한다. (이미 시작됐으면 아무것도 안 함)
+        // start()는 클라이언트만 만들고, 연결은 eagerInitialization일 때만 바로 맺는다.
+        connectionFactory.start();
+        AbstractRedisClient nativeClient = connectionFactory.getNativeClient();
+        if (nativeClient != null) {
+            nativeClient.addListener(new RedisCommandEventListener());
+        } else {
+            System.err.println("RedisConfig: RedisClient가 없어 JFR Redis 명령 리스너를 등록하지 못했습니다. RedisCommandEvent는 기록되지 않습니다.");
+        }
         return connectionFactory;
     }
 
@@ -68,14 +97,66 @@ public class RedisConfig {
         redisTemplate.setHashKeySerializer(new StringRedisSerializer());
 
         // Value 직렬화 설정 (JSON 형태) - Product 객체를 JSON으로 변환(직렬화)하여 저장
-        redisTemplate.setValueSerializer(new GenericJackson2JsonRedisSerializer());
-        redisTemplate.setHashValueSerializer(new GenericJackson2JsonRedisSerializer());
+        // (MeteredRedisSerializer: JFR 이벤트용으로 값 바이트 수만 세고 그대로 위임)
+        redisTemplate.setValueSerializer(MeteredRedisSerializer.of(new GenericJackson2JsonRedisSerializer()));
+        redisTemplate.setHashValueSerializer(MeteredRedisSerializer.of(new GenericJackson2JsonRedisSerializer()));
 
         redisTemplate.afterPropertiesSet(); // 설정 완료 후 초기화
         return redisTemplate;
     }
 
 
+    /**
+     * 상품 키 전용 RedisTemplate 빈을 설정합니다.
+     * 키를 Long(상품 ID)으로 받아 ProductKeyCodec이 "product:{id}" 바이트로 바로 인코딩합니다.
+     * ("product:" + id 문자열 결합과 StringRedisSerializer 인코딩을 모두 건너뜀)
+     * 값 직렬화는 redisTemplate과 같으므로 두 템플릿이 같은 키를 읽고 쓸 수 있습니다.
+     */
+    @Bean
+    public RedisTemplate<Long, Object> productRedisTemplate(RedisConnectionFactory connectionFactory) {
+        RedisTemplate<Long, Object> productRedisTemplate = new RedisTemplate<>();
+        productRedisTemplate.setConnectionFactory(connectionFactory);
+
+        productRedisTemplate.setKeySerializer(ProductKeyCodec.INSTANCE);
+        productRedisTemplate.setValueSerializer(MeteredRedisSerializer.of(new GenericJackson2JsonRedisSerializer()));
+
+        productRedisTemplate.afterPropertiesSet();
+        return productRedisTemplate;
+    }
+
+
+    /**
+     * 상품 버킷 Hash 전용 RedisTemplate 빈을 설정합니다. (ProductServiceV6)
+     * 키: product:b:{버킷}, 필드: 상품 ID, 값: 타입 정보(@class)와 null 필드가 없는 Product JSON
+     * 값이 작아야 Hash가 listpack(압축 인코딩)으로 유지되므로 GenericJackson2JsonRedisSerializer를 쓰지 않습니다.
+     */
+    @Bean
+    public RedisTemplate<String, Product> productBucketRedisTemplate(RedisConnectionFactory connectionFactory) {
+        RedisTemplate<String, Product> productBucketRedisTemplate = new RedisTemplate<>();
+        productBucketRedisTemplate.setConnectionFactory(connectionFactory);
+
+        ObjectMapper compactObjectMapper = new ObjectMapper()
+                .setSerializationInclusion(JsonInclude.Include.NON_NULL)
+                .configure(DeserializationFeature.FAIL_ON_UNKNOWN_PROPERTIES, false);
+        productBucketRedisTemplate.setKeySerializer(new StringRedisSerializer());
+        productBucketRedisTemplate.setHashKeySerializer(new GenericToStringSerializer<>(Long.class));
+        productBucketRedisTemplate.setHashValueSerializer(MeteredRedisSerializer.of(new Jackson2JsonRedisSerializer<>(compactObjectMapper, Product.class)));
+
+        productBucketRedisTemplate.afterPropertiesSet();
+        return productBucketRedisTemplate;
+    }
+
+
+    /**
+     * Spring Cache용 상품 키 생성기 빈을 설정합니다.
+     * key = "#id" 는 호출마다 SpEL 평가 컨텍스트를 만들기 때문에, 첫 번째 파라미터(상품 ID)를 그대로 키로 씁니다.
+     */
+    @Bean
+    public KeyGenerator productKeyGenerator() {
+        return (target, method, params) -> params[0];
+    }
+
+
     /**
      * Spring Cache Abstraction을 위한 RedisCacheConfiguration 빈을 설정합니다.
      * 캐시 항목의 기본 만료 시간, null 값 캐싱 여부, 키/값 직렬화 방식을 정의합니다.
@@ -86,6 +167,29 @@ public class RedisConfig {
                 .entryTtl(Duration.ofMinutes(10)) // 캐시 항목의 기본 만료 시간을 10분으로 설정
                 .disableCachingNullValues() // null 값은 캐싱하지 않도록 설정
                 .serializeKeysWith(RedisSerializationContext.SerializationPair.fromSerializer(new StringRedisSerializer())) // 캐시 키는 String으로 직렬화
-                .serializeValuesWith(RedisSerializationContext.SerializationPair.fromSerializer(new GenericJackson2JsonRedisSerializer())); // 캐시 값은 JSON으로 직렬화
+                .serializeValuesWith(RedisSerializationContext.SerializationPair.fromSerializer(MeteredRedisSerializer.of(new GenericJackson2JsonRedisSerializer()))); // 캐시 값은 JSON으로 직렬화
+    }
+
+
+    /**
+     * 애노테이션 기반 캐시(@Cacheable/@CacheEvict)용 CacheManager 빈을 설정합니다.
+     * 캐시 이름별로 TTL, 값 직렬화 방식, 키 접두어를 따로 지정하고,
+     * 캐시 객체는 ProductRedisCache(키 단위 잠금, 비동기 조회, 묶음 무효화)를 사용합니다.
+     * 여기에 등록되지 않은 캐시 이름은 cacheConfiguration()의 기본 설정을 따릅니다.
+     */
+    @Bean
+    public RedisCacheManager cacheManager(RedisConnectionFactory connectionFactory, RedisCacheConfiguration cacheConfiguration) {
+        Map<String, RedisCacheConfiguration> cacheConfigurations = new HashMap<>();
+
+        // "product" 캐시: ProductServiceV4
+        ObjectMapper productObjectMapper = new ObjectMapper()
+                .configure(DeserializationFeature.FAIL_ON_UNKNOWN_PROPERTIES, false); // 이전 형식(@class 포함)으로 저장된 항목도 읽을 수 있도록
+        cacheConfigurations.put("product", cacheConfiguration
+                .entryTtl(Duration.ofMinutes(30)) // 수정/삭제 시 @CacheEvict로 무효화되므로 기본값보다 길게
+                .computePrefixWith(cacheName -> cacheName + "::") // product::{id} - V1~V3의 product:{id} 키와 겹치지 않음
+                .serializeValuesWith(RedisSerializationContext.SerializationPair.fromSerializer(
+                        MeteredRedisSerializer.of(new Jackson2JsonRedisSerializer<>(productObjectMapper, Product.class))))); // 타입이 하나뿐이므로 @class 없이 저장
+
+        return new ProductRedisCacheManager(connectionFactory, cacheConfiguration, cacheConfigurations);
     }
 }
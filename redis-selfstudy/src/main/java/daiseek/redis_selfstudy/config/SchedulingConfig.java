@@ -0,0 +1,9 @@
+package daiseek.redis_selfstudy.config;
+
+import org.springframework.context.annotation.Configuration;
+import org.springframework.scheduling.annotation.EnableScheduling;
+
+@Configuration
+@EnableScheduling // @Scheduled 주기 작업 활성화 (조회수 집계 flush 등)
+public class SchedulingConfig {
+}
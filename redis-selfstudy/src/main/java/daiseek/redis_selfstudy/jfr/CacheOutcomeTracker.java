@@ -0,0 +1,53 @@
+package daiseek.redis_selfstudy.jfr;
+
+/**
+ * 현재 스레드의 마지막 단건 조회가 캐시에서 어떻게 처리됐는지 전략이 직접 기록한다. (ProductServiceRouter 집계/JFR용)
+ * 라우터는 호출 전에 clear()하고 호출 후 take()로 꺼낸다.
+ * SerializedBytesTracker처럼 측정용 스레드 로컬이라 jfr 패키지에 둔다. (config의 ProductRedisCache도 서비스 패키지에 의존하지 않고 기록할 수 있음)
+ *
+ * 저장소 조회 여부로 추측하면 V4(@Cacheable(sync = true))에서 다른 요청의 로딩을 기다린 요청이
+ * 저장소를 직접 읽지 않았다는 이유로 히트가 된다. 그래서 결과는 캐시를 읽은 쪽이 기록한다.
+ * - V1~V3, V5, V6: getProductById 안에서
+ * - V4: ProductRedisCache.get(key, valueLoader) 안에서 (히트면 메서드 자체가 실행되지 않음)
+ */
+public final class CacheOutcomeTracker {
+
+    public enum Outcome {
+        HIT("hit"),       // 캐시에서 바로 반환
+        MISS("miss"),     // 이 요청이 저장소를 조회
+        SHARED("shared"); // 같은 키를 로딩 중인 다른 요청의 결과를 기다림 (캐시에서 바로 나오지 않았으므로 히트율에서는 미스)
+
+        private final String label;
+
+        Outcome(String label) {
+            this.label = label;
+        }
+
+        public String label() {
+            return label;
+        }
+    }
+
+    private static final ThreadLocal<Outcome[]> OUTCOME = ThreadLocal.withInitial(() -> new Outcome[1]);
+
+    private CacheOutcomeTracker() {
+    }
+
+    public static void record(Outcome outcome) {
+        OUTCOME.get()[0] = outcome;
+    }
+
+    public static void clear() {
+        OUTCOME.get()[0] = null;
+    }
+
+    /**
+     * @return : 기록된 결과, 전략이 기록하지 않았으면 null
+     */
+    public static Outcome take() {
+        Outcome[] holder = OUTCOME.get();
+        Outcome outcome = holder[0];
+        holder[0] = null;
+        return outcome;
+    }
+}
@@ -0,0 +1,43 @@
+package daiseek.redis_selfstudy.jfr;
+
+import jdk.jfr.Category;
+import jdk.jfr.DataAmount;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+/**
+ * 상품 서비스 호출 한 번 (ProductServiceRouter가 전략 호출을 감싸서 기록)
+ * 지속 시간 = 전략 호출 전체 (캐시 조회 + 미스 시 저장소 조회 + 캐시 채우기)
+ */
+@Name("daiseek.ProductCache")
+@Label("Product Cache Operation")
+@Category({"Redis Selfstudy", "Product"})
+@Description("상품 서비스 조회/쓰기 한 건")
+@StackTrace(false)
+public class ProductCacheEvent extends Event {
+
+    @Label("Strategy")
+    public String strategy;
+
+    @Label("Operation")
+    @Description("read, save, update, delete, cas, tombstone")
+    public String operation;
+
+    @Label("Product ID")
+    public long productId;
+
+    @Label("Cache Key")
+    public String key;
+
+    @Label("Outcome")
+    @Description("hit, miss, shared(다른 요청의 로딩 대기), unknown, written, applied, stale, error")
+    public String outcome;
+
+    @Label("Serialized Bytes")
+    @Description("이 호출 동안 현재 스레드에서 직렬화/역직렬화한 캐시 값 바이트 수")
+    @DataAmount
+    public long serializedBytes;
+}
@@ -0,0 +1,32 @@
+package daiseek.redis_selfstudy.jfr;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+/**
+ * Redis 명령 한 건 (RedisCommandEventListener가 기록)
+ * 지속 시간 = Lettuce가 명령을 보낸 시점부터 응답/실패까지
+ * 명령 완료는 Netty 이벤트 루프 스레드에서 일어나므로 이벤트의 스레드는 요청 스레드가 아니다.
+ */
+@Name("daiseek.RedisCommand")
+@Label("Redis Command")
+@Category({"Redis Selfstudy", "Redis"})
+@Description("Lettuce로 보낸 Redis 명령 한 건")
+@StackTrace(false)
+public class RedisCommandEvent extends Event {
+
+    @Label("Command")
+    public String command;
+
+    @Label("Key")
+    @Description("첫 번째 키 (키가 없는 명령은 null)")
+    public String key;
+
+    @Label("Outcome")
+    @Description("ok, error, timeout")
+    public String outcome;
+}
@@ -0,0 +1,73 @@
+package daiseek.redis_selfstudy.jfr;
+
+import io.lettuce.core.RedisCommandTimeoutException;
+import io.lettuce.core.event.command.CommandFailedEvent;
+import io.lettuce.core.event.command.CommandListener;
+import io.lettuce.core.event.command.CommandStartedEvent;
+import io.lettuce.core.event.command.CommandSucceededEvent;
+import io.lettuce.core.protocol.CommandArgs;
+import jdk.jfr.EventType;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * Lettuce 명령마다 RedisCommandEvent를 기록한다. (RedisConfig에서 RedisClient에 등록)
+ * 명령 시작 시 이벤트를 begin()해서 명령 컨텍스트에 넣어두고, 성공/실패 콜백에서 꺼내 commit()한다.
+ * 녹화 중이 아니면 이벤트 객체를 만들지 않고 컨텍스트에도 아무것도 넣지 않는다. (명령마다 할당이 생기지 않도록 EventType으로 확인)
+ */
+public class RedisCommandEventListener implements CommandListener {
+
+    private static final String EVENT = RedisCommandEvent.class.getName();
+    private static final EventType EVENT_TYPE = EventType.getEventType(RedisCommandEvent.class);
+    private static final int MAX_KEY_LENGTH = 128;
+
+    @Override
+    public void commandStarted(CommandStartedEvent startedEvent) {
+        if (!EVENT_TYPE.isEnabled()) {
+            return;
+        }
+        RedisCommandEvent event = new RedisCommandEvent();
+        event.begin();
+        startedEvent.getContext().put(EVENT, event);
+    }
+
+    @Override
+    public void commandSucceeded(CommandSucceededEvent succeededEvent) {
+        RedisCommandEvent event = (RedisCommandEvent) succeededEvent.getContext().get(EVENT);
+        if (event != null) {
+            commit(event, succeededEvent.getCommand().getType().getBytes(), succeededEvent.getCommand().getArgs(), "ok");
+        }
+    }
+
+    @Override
+    public void commandFailed(CommandFailedEvent failedEvent) {
+        RedisCommandEvent event = (RedisCommandEvent) failedEvent.getContext().get(EVENT);
+        if (event != null) {
+            String outcome = failedEvent.getCause() instanceof RedisCommandTimeoutException ? "timeout" : "error";
+            commit(event, failedEvent.getCommand().getType().getBytes(), failedEvent.getCommand().getArgs(), outcome);
+        }
+    }
+
+    private static void commit(RedisCommandEvent event, byte[] command, CommandArgs<?, ?> args, String outcome) {
+        event.end();
+        if (!event.shouldCommit()) {
+            return;
+        }
+        event.command = new String(command, StandardCharsets.US_ASCII);
+        event.key = firstKey(args);
+        event.outcome = outcome;
+        event.commit();
+    }
+
+    private static String firstKey(CommandArgs<?, ?> args) {
+        ByteBuffer key = args != null ? args.getFirstEncodedKey() : null;
+        if (key == null) {
+            return null;
+        }
+        ByteBuffer view = key.duplicate();
+        byte[] bytes = new byte[Math.min(view.remaining(), MAX_KEY_LENGTH)];
+        view.get(bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+}
@@ -0,0 +1,31 @@
+package daiseek.redis_selfstudy.jfr;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+/**
+ * 저장소(가상 DB) 호출 한 번 - 캐시 미스가 실제로 얼마나 기다렸는지 본다.
+ */
+@Name("daiseek.RepositoryCall")
+@Label("Repository Call")
+@Category({"Redis Selfstudy", "Repository"})
+@Description("상품 저장소 호출 한 건")
+@StackTrace(false)
+public class RepositoryCallEvent extends Event {
+
+    @Label("Operation")
+    @Description("findById, findAllById, save, deleteById")
+    public String operation;
+
+    @Label("Product ID")
+    @Description("다건 조회는 -1")
+    public long productId;
+
+    @Label("Rows")
+    @Description("조회/저장된 상품 수")
+    public int rows;
+}
@@ -0,0 +1,21 @@
+package daiseek.redis_selfstudy.jfr;
+
+/**
+ * 현재 스레드에서 직렬화/역직렬화한 캐시 값 바이트 수를 센다. (MeteredRedisSerializer가 기록)
+ * 호출 전후 값을 비교해서 한 호출의 바이트 수를 구한다.
+ */
+public final class SerializedBytesTracker {
+
+    private static final ThreadLocal<long[]> BYTES = ThreadLocal.withInitial(() -> new long[1]);
+
+    private SerializedBytesTracker() {
+    }
+
+    public static void record(int bytes) {
+        BYTES.get()[0] += bytes;
+    }
+
+    public static long currentBytes() {
+        return BYTES.get()[0];
+    }
+}
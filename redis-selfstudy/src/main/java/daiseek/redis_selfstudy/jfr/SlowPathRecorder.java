@@ -0,0 +1,143 @@
+package daiseek.redis_selfstudy.jfr;
+
+import jakarta.annotation.PreDestroy;
+import jdk.jfr.Configuration;
+import jdk.jfr.Recording;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.text.ParseException;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Note. 느린 요청용 상시 녹화 (app.jfr.enabled=true, 기본은 꺼짐)
+ * 평균/백분위 통계로는 "어느 요청이 왜 느렸는지"를 알 수 없다.
+ * (V3 단일 스레드 Executor 뒤에서 기다린 미스, 5초 타임아웃에 걸린 GET 등)
+ *
+ * 1. 애플리케이션 준비 후 JFR 녹화를 계속 켜둔다.
+ *    - JDK "default" 설정(상시 운영용, 오버헤드 1% 미만) + 이 프로젝트의 사용자 이벤트
+ *    - 최근 maxAge 구간만 디스크 저장소에 남기고 오래된 청크는 JFR이 지운다.
+ *    - 사용자 이벤트는 임계값보다 오래 걸린 것만 남긴다. (캐시 히트/빠른 Redis 명령까지 모두 남기면 이벤트가 요청 수만큼 쌓인다)
+ *      Redis 명령 app.jfr.redis-threshold(5ms), 저장소 호출 app.jfr.repository-threshold(10ms),
+ *      상품 서비스 호출/Write-Back app.jfr.service-threshold(10ms). SlowRequestEvent는 필터가 이미 걸렀으므로 모두 남긴다.
+ * 2. SlowRequestFilter가 임계값을 넘긴 요청을 알리면, 지금까지의 녹화를 dump-dir에 .jfr 파일로 남긴다.
+ *    - 느린 요청이 몰려도 min-dump-interval에 한 번만 덤프한다.
+ *    - 덤프는 별도 스레드에서 하므로 요청 스레드는 기다리지 않는다.
+ * 3. 덤프 파일은 JDK Mission Control 또는 `jfr print --events daiseek.* <파일>`로 본다.
+ *
+ * 녹화가 꺼져 있으면 사용자 이벤트는 isEnabled()/shouldCommit()에서 바로 빠지므로 비용이 거의 없다.
+ * CDS 학습 실행(spring.context.exit=onRefresh)은 준비 이벤트 전에 끝나므로 녹화를 시작하지 않는다.
+ */
+@Component
+public class SlowPathRecorder {
+
+    private static final long NEVER = Long.MIN_VALUE;
+    private static final DateTimeFormatter FILE_TIME = DateTimeFormatter.ofPattern("yyyyMMdd-HHmmss-SSS");
+
+    private final boolean enabled;
+    private final Duration maxAge;
+    private final Path dumpDirectory;
+    private final long minDumpIntervalNanos;
+    private final Map<Class<? extends jdk.jfr.Event>, Duration> eventThresholds = new LinkedHashMap<>(); // 사용자 이벤트 -> 임계값
+
+    private final AtomicLong lastDumpAt = new AtomicLong(NEVER);
+    private final ExecutorService dumpExecutor = Executors.newSingleThreadExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "jfr-slow-path-dump");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    private volatile Recording recording;
+
+    public SlowPathRecorder(@Value("${app.jfr.enabled:false}") boolean enabled,
+                            @Value("${app.jfr.max-age:2m}") Duration maxAge,
+                            @Value("${app.jfr.dump-dir:${java.io.tmpdir}/redis-selfstudy-jfr}") String dumpDirectory,
+                            @Value("${app.jfr.min-dump-interval:60s}") Duration minDumpInterval,
+                            @Value("${app.jfr.redis-threshold:5ms}") Duration redisThreshold,
+                            @Value("${app.jfr.repository-threshold:10ms}") Duration repositoryThreshold,
+                            @Value("${app.jfr.service-threshold:10ms}") Duration serviceThreshold) {
+        this.enabled = enabled;
+        this.maxAge = maxAge;
+        this.dumpDirectory = Path.of(dumpDirectory);
+        this.minDumpIntervalNanos = minDumpInterval.toNanos();
+        eventThresholds.put(RedisCommandEvent.class, redisThreshold);
+        eventThresholds.put(RepositoryCallEvent.class, repositoryThreshold);
+        eventThresholds.put(ProductCacheEvent.class, serviceThreshold);
+        eventThresholds.put(WriteBackEvent.class, serviceThreshold);
+        eventThresholds.put(SlowRequestEvent.class, Duration.ZERO);
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void start() {
+        if (!enabled) {
+            return;
+        }
+        try {
+            Recording continuous = new Recording(Configuration.getConfiguration("default"));
+            continuous.setName("redis-selfstudy-slow-path");
+            continuous.setToDisk(true);
+            continuous.setMaxAge(maxAge);
+            continuous.setMaxSize(64L * 1024 * 1024);
+            eventThresholds.forEach((event, threshold) -> continuous.enable(event).withThreshold(threshold));
+            continuous.start();
+            recording = continuous;
+            System.out.println("SlowPathRecorder: JFR 상시 녹화 시작 (최근 " + maxAge + ", 덤프 위치 " + dumpDirectory
+                    + ", 임계값 redis " + eventThresholds.get(RedisCommandEvent.class)
+                    + " / repository " + eventThresholds.get(RepositoryCallEvent.class)
+                    + " / service " + eventThresholds.get(ProductCacheEvent.class) + ")");
+        } catch (IOException | ParseException | IllegalStateException | SecurityException e) {
+            System.err.println("SlowPathRecorder: JFR 녹화를 시작하지 못했습니다: " + e);
+        }
+    }
+
+    /**
+     * 느린 요청 발생을 알린다. 녹화 중이고 마지막 덤프 후 min-dump-interval이 지났으면 덤프를 예약한다.
+     * @return : 덤프를 예약했는지 여부
+     */
+    public boolean onSlowRequest(String reason) {
+        Recording current = recording;
+        if (current == null) {
+            return false;
+        }
+        long now = System.nanoTime();
+        long last = lastDumpAt.get();
+        if ((last != NEVER && now - last < minDumpIntervalNanos) || !lastDumpAt.compareAndSet(last, now)) {
+            return false; // 최근에 덤프했거나 다른 스레드가 방금 예약함
+        }
+        dumpExecutor.execute(() -> dump(current, reason));
+        return true;
+    }
+
+    private void dump(Recording current, String reason) {
+        Path file = dumpDirectory.resolve("slow-" + LocalDateTime.now().format(FILE_TIME) + ".jfr");
+        try {
+            Files.createDirectories(dumpDirectory);
+            current.dump(file);
+            System.out.println("SlowPathRecorder: 느린 요청 덤프 " + file + " (" + reason + ")");
+        } catch (IOException | IllegalStateException e) {
+            System.err.println("SlowPathRecorder: 덤프 실패 " + file + ": " + e);
+        }
+    }
+
+    @PreDestroy
+    public void stop() {
+        dumpExecutor.shutdown();
+        Recording current = recording;
+        recording = null;
+        if (current != null) {
+            current.close();
+        }
+    }
+}
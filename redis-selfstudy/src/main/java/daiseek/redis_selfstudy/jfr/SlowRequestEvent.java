@@ -0,0 +1,29 @@
+package daiseek.redis_selfstudy.jfr;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+/**
+ * 임계값(app.jfr.slow-threshold-ms)을 넘긴 HTTP 요청 (SlowRequestFilter가 기록)
+ * 덤프 파일에서 이 이벤트의 시간 구간으로 같은 스레드의 다른 이벤트를 좁혀 보면 된다.
+ */
+@Name("daiseek.SlowRequest")
+@Label("Slow Request")
+@Category({"Redis Selfstudy", "HTTP"})
+@Description("느린 HTTP 요청 한 건")
+@StackTrace(false)
+public class SlowRequestEvent extends Event {
+
+    @Label("Method")
+    public String method;
+
+    @Label("URI")
+    public String uri;
+
+    @Label("Status")
+    public int status;
+}
@@ -0,0 +1,59 @@
+package daiseek.redis_selfstudy.jfr;
+
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import jdk.jfr.EventType;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 요청 처리 시간이 app.jfr.slow-threshold-ms 이상이면 SlowRequestEvent를 남기고 SlowPathRecorder에 덤프를 요청한다.
+ * 기본값 1000ms: 정상적인 캐시 미스 경로(ProductRepositoryV1.findById 500ms + Redis 왕복)보다 충분히 길게 잡아,
+ * 평범한 미스마다 덤프가 일어나지 않도록 한다.
+ * 빠른 요청은 nanoTime 두 번과 비교 한 번만 하고 지나간다. 녹화 중이 아니면 이벤트 객체도 만들지 않는다.
+ */
+@Component
+public class SlowRequestFilter extends OncePerRequestFilter {
+
+    private static final EventType EVENT_TYPE = EventType.getEventType(SlowRequestEvent.class);
+
+    private final SlowPathRecorder slowPathRecorder;
+    private final long thresholdNanos;
+
+    public SlowRequestFilter(SlowPathRecorder slowPathRecorder,
+                             @Value("${app.jfr.slow-threshold-ms:1000}") long thresholdMillis) {
+        this.slowPathRecorder = slowPathRecorder;
+        this.thresholdNanos = TimeUnit.MILLISECONDS.toNanos(thresholdMillis);
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain filterChain)
+            throws ServletException, IOException {
+        SlowRequestEvent event = EVENT_TYPE.isEnabled() ? new SlowRequestEvent() : null;
+        if (event != null) {
+            event.begin();
+        }
+        long startedAt = System.nanoTime();
+        try {
+            filterChain.doFilter(request, response);
+        } finally {
+            long elapsed = System.nanoTime() - startedAt;
+            if (elapsed >= thresholdNanos) {
+                if (event != null) {
+                    event.method = request.getMethod();
+                    event.uri = request.getRequestURI();
+                    event.status = response.getStatus();
+                    event.commit();
+                }
+                slowPathRecorder.onSlowRequest(request.getMethod() + " " + request.getRequestURI() + " "
+                        + TimeUnit.NANOSECONDS.toMillis(elapsed) + "ms");
+            }
+        }
+    }
+}
@@ -0,0 +1,31 @@
+package daiseek.redis_selfstudy.jfr;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+import jdk.jfr.Timespan;
+
+/**
+ * ProductServiceV3 Write-Back 작업 한 건
+ * 지속 시간 = 작업 실행 시간, queueWait = 단일 스레드 Executor 큐에서 기다린 시간
+ */
+@Name("daiseek.WriteBack")
+@Label("Write-Back Task")
+@Category({"Redis Selfstudy", "Product"})
+@Description("V3 Write-Back 비동기 저장소 반영 한 건")
+@StackTrace(false)
+public class WriteBackEvent extends Event {
+
+    @Label("Operation")
+    public String operation;
+
+    @Label("Product ID")
+    public long productId;
+
+    @Label("Queue Wait")
+    @Timespan(Timespan.NANOSECONDS)
+    public long queueWait;
+}
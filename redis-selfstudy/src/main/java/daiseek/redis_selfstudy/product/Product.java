@@ -14,6 +14,7 @@ public class Product implements Serializable {
     private Long id;
     private String name;
     private int price;
+    private Long version; // 저장소가 쓰기마다 부여하는 단조 증가 버전 (캐시 CAS 비교용)
 
     // 기본 생성자
     public Product() {
@@ -38,6 +39,10 @@ public class Product implements Serializable {
         return price;
     }
 
+    public Long getVersion() {
+        return version;
+    }
+
     // Setter 메서드 (필요시 추가, 여기서는 Immutable 객체처럼 사용)
     public void setId(Long id) {
         this.id = id;
@@ -51,12 +56,17 @@ public class Product implements Serializable {
         this.price = price;
     }
 
+    public void setVersion(Long version) {
+        this.version = version;
+    }
+
     @Override
     public String toString() {
         return "Product{" +
                 "id=" + id +
                 ", name='" + name + '\'' +
                 ", price=" + price +
+                ", version=" + version +
                 '}';
     }
 }
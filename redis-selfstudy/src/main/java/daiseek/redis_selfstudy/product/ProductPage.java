@@ -0,0 +1,11 @@
+package daiseek.redis_selfstudy.product;
+
+import java.util.List;
+
+/**
+ * 목록 조회 결과 한 페이지
+ * @param products : 이번 페이지의 상품들 (인덱스 순서 유지)
+ * @param nextCursor : 다음 페이지 조회 시 넘길 커서(마지막으로 본 항목의 위치), 마지막 페이지면 null
+ */
+public record ProductPage(List<Product> products, String nextCursor) {
+}
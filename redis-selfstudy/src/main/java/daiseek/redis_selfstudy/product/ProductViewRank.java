@@ -0,0 +1,9 @@
+package daiseek.redis_selfstudy.product;
+
+/**
+ * 인기 상품 순위 항목
+ * @param productId : 상품 아이디
+ * @param views : 조회 구간 동안의 조회수
+ */
+public record ProductViewRank(Long productId, long views) {
+}
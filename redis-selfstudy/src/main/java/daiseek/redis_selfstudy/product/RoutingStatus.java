@@ -0,0 +1,14 @@
+package daiseek.redis_selfstudy.product;
+
+import java.util.List;
+import java.util.Map;
+
+/**
+ * 라우팅 상태 (GET /admin/routing, 정책 변경 응답)
+ * @param policy : 현재 정책 설명
+ * @param strategies : 라우팅 가능한 전략 이름들
+ * @param drained : 마지막 정책 변경에서 트래픽이 끊긴 전략 -> 진행 중 요청/지연 쓰기가 모두 끝났는지 여부
+ * @param stats : 전략별 통계
+ */
+public record RoutingStatus(String policy, List<String> strategies, Map<String, Boolean> drained, List<StrategyStats> stats) {
+}
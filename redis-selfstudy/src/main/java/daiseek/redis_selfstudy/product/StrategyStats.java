@@ -0,0 +1,17 @@
+package daiseek.redis_selfstudy.product;
+
+/**
+ * 전략별 조회 통계 (ProductServiceRouter 집계)
+ * @param strategy : 전략(ProductService 빈) 이름
+ * @param requests : 처리한 요청 수 (조회 + 쓰기)
+ * @param hits : 캐시에서 바로 반환한 조회 수 (전략이 CacheOutcomeTracker에 기록)
+ * @param misses : 저장소를 조회했거나, 같은 키를 로딩 중인 다른 요청의 결과를 기다린 조회 수
+ * @param hitRatio : hits / (hits + misses), 조회가 없으면 0
+ * @param errors : 예외로 끝난 요청 수
+ * @param inFlight : 현재 처리 중인 요청 수
+ * @param p50Micros : 조회 지연 중앙값 (2의 거듭제곱 구간의 상한, 마이크로초)
+ * @param p99Micros : 조회 지연 99 백분위 (2의 거듭제곱 구간의 상한, 마이크로초)
+ */
+public record StrategyStats(String strategy, long requests, long hits, long misses, double hitRatio,
+                            long errors, long inFlight, long p50Micros, long p99Micros) {
+}
@@ -1,19 +1,27 @@
 package daiseek.redis_selfstudy.product.controller;
 
 import daiseek.redis_selfstudy.product.Product;
+import daiseek.redis_selfstudy.product.ProductPage;
+import daiseek.redis_selfstudy.product.ProductViewRank;
+import daiseek.redis_selfstudy.product.service.ProductSearchService;
 import daiseek.redis_selfstudy.product.service.ProductService;
+import daiseek.redis_selfstudy.product.service.ProductViewCounter;
 import daiseek.redis_selfstudy.product.service.ProductServiceV3;
 import org.springframework.beans.factory.annotation.Qualifier;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 
+import java.util.List;
 import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
 
 @RestController
 public class ProductController {
 
     private final ProductService productService; // ProductService 인터페이스 타입으로 주입
+    private final ProductSearchService productSearchService; // 인덱스 기반 목록 조회
+    private final ProductViewCounter productViewCounter; // 인기 상품 조회수 집계
 
     /**
      * 생성자 주입 시 @Qualifier를 사용하여 특정 구현체 지정
@@ -26,10 +34,21 @@ public class ProductController {
 //        this.productService = productService;
 //    }
 
-    public ProductController(@Qualifier("productServiceV3")ProductService productService) {
+    /**
+     * 전략은 ProductServiceRouter가 런타임에 고른다. (기본: productServiceV3, 변경은 /admin/routing)
+     */
+    public ProductController(@Qualifier("productServiceRouter") ProductService productService,
+                             ProductSearchService productSearchService,
+                             ProductViewCounter productViewCounter) {
         this.productService = productService;
+        this.productSearchService = productSearchService;
+        this.productViewCounter = productViewCounter;
     }
 
+//    public ProductController(@Qualifier("productServiceV5") ProductService productService) {
+//        this.productService = productService;
+//    }
+
     /**
      * 새 제품 생성 후 저장
      * POST /products
@@ -48,10 +67,70 @@ public class ProductController {
     @GetMapping("/products/{id}")
     public ResponseEntity<Product> getProduct(@PathVariable Long id) {
         Optional<Product> product = productService.getProductById(id);
+        // 캐시 히트(V4는 메서드 자체가 실행되지 않음)까지 모두 세기 위해 서비스 밖에서 집계
+        product.ifPresent(found -> productViewCounter.recordView(found.getId()));
         return product.map(ResponseEntity::ok)
                 .orElseGet(() -> ResponseEntity.notFound().build());
     }
 
+    /**
+     * 가격 범위로 상품 목록 조회 (Sorted Set 인덱스)
+     * GET /products/search?minPrice=1000&maxPrice=50000&size=20
+     * 응답의 nextCursor를 다음 요청의 cursor로 넘기면 다음 페이지를 조회한다. (잘못된 커서는 400)
+     */
+    @GetMapping("/products/search")
+    public ResponseEntity<ProductPage> searchProducts(@RequestParam(defaultValue = "0") int minPrice,
+                                                      @RequestParam(defaultValue = "" + Integer.MAX_VALUE) int maxPrice,
+                                                      @RequestParam(defaultValue = "") String cursor,
+                                                      @RequestParam(defaultValue = "20") int size) {
+        try {
+            return ResponseEntity.ok(productSearchService.searchByPrice(minPrice, maxPrice, cursor, size));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().build();
+        }
+    }
+
+    /**
+     * ID로 상품 비동기 조회
+     * GET /products/{id}/async
+     * CompletableFuture를 반환하면 Spring MVC가 요청 스레드를 먼저 반납하고, 조회가 끝나면 응답을 보낸다.
+     */
+    @GetMapping("/products/{id}/async")
+    public CompletableFuture<ResponseEntity<Product>> getProductAsync(@PathVariable Long id) {
+        return productService.getProductByIdAsync(id).thenApply(product -> {
+            if (product == null) {
+                return ResponseEntity.notFound().<Product>build();
+            }
+            productViewCounter.recordView(product.getId());
+            return ResponseEntity.ok(product);
+        });
+    }
+
+    /**
+     * 최근 조회수가 많은 상품 순위
+     * GET /products/popular?limit=10&windowMinutes=60
+     */
+    @GetMapping("/products/popular")
+    public ResponseEntity<List<ProductViewRank>> getPopularProducts(@RequestParam(defaultValue = "10") int limit,
+                                                                    @RequestParam(defaultValue = "60") int windowMinutes) {
+        return ResponseEntity.ok(productViewCounter.topProducts(limit, windowMinutes));
+    }
+
+    /**
+     * 이름 접두어로 상품 목록 조회 (이름 사전순)
+     * GET /products/search/name?prefix=Lap&size=20
+     */
+    @GetMapping("/products/search/name")
+    public ResponseEntity<ProductPage> searchProductsByName(@RequestParam(defaultValue = "") String prefix,
+                                                            @RequestParam(defaultValue = "") String cursor,
+                                                            @RequestParam(defaultValue = "20") int size) {
+        try {
+            return ResponseEntity.ok(productSearchService.searchByName(prefix, cursor, size));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().build();
+        }
+    }
+
     /**
      * ID로 Product를 삭제 (캐시 무효화 테스트)
      * DELETE /products/{id}
@@ -0,0 +1,82 @@
+package daiseek.redis_selfstudy.product.controller;
+
+import daiseek.redis_selfstudy.product.RoutingStatus;
+import daiseek.redis_selfstudy.product.service.ProductServiceRouter;
+import daiseek.redis_selfstudy.product.service.RoutingPolicy;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+import java.util.List;
+import java.util.Map;
+import java.util.function.Supplier;
+
+/**
+ * 캐싱 전략 라우팅 관리 (재시작 없이 전략 전환)
+ * 전략 이름은 ProductService 빈 이름 (productServiceV1 ~ productServiceV5 ...)
+ */
+@RestController
+@RequestMapping("/admin/routing")
+public class RoutingAdminController {
+
+    private final ProductServiceRouter productServiceRouter;
+
+    public RoutingAdminController(ProductServiceRouter productServiceRouter) {
+        this.productServiceRouter = productServiceRouter;
+    }
+
+    /**
+     * 현재 정책과 전략별 통계 (요청 수, 히트율, p50/p99)
+     * GET /admin/routing
+     */
+    @GetMapping
+    public ResponseEntity<RoutingStatus> getStatus() {
+        return ResponseEntity.ok(productServiceRouter.status());
+    }
+
+    /**
+     * 모든 요청을 한 전략으로
+     * PUT /admin/routing/global?strategy=productServiceV1
+     */
+    @PutMapping("/global")
+    public ResponseEntity<RoutingStatus> routeAll(@RequestParam String strategy) {
+        return switchPolicy(() -> new RoutingPolicy.Global(strategy));
+    }
+
+    /**
+     * 비율 분할 (합계 100)
+     * PUT /admin/routing/split
+     * Request Body: { "productServiceV1": 50, "productServiceV4": 50 }
+     */
+    @PutMapping("/split")
+    public ResponseEntity<RoutingStatus> split(@RequestBody Map<String, Integer> weights) {
+        return switchPolicy(() -> new RoutingPolicy.PercentageSplit(weights));
+    }
+
+    /**
+     * 상품 ID 해시로 분할 (같은 상품은 항상 같은 전략)
+     * PUT /admin/routing/hash
+     * Request Body: [ "productServiceV1", "productServiceV3" ]
+     */
+    @PutMapping("/hash")
+    public ResponseEntity<RoutingStatus> hash(@RequestBody List<String> strategies) {
+        return switchPolicy(() -> new RoutingPolicy.HashOfId(strategies));
+    }
+
+    /**
+     * 통계 초기화
+     * DELETE /admin/routing/stats
+     */
+    @DeleteMapping("/stats")
+    public ResponseEntity<Void> resetStats() {
+        productServiceRouter.resetStats();
+        return ResponseEntity.noContent().build();
+    }
+
+    private ResponseEntity<RoutingStatus> switchPolicy(Supplier<RoutingPolicy> policy) {
+        try {
+            return ResponseEntity.ok(productServiceRouter.switchPolicy(policy.get()));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().build(); // 알 수 없는 전략, 비율 합계 오류 등
+        }
+    }
+}
@@ -0,0 +1,331 @@
+package daiseek.redis_selfstudy.product.repository;
+
+import daiseek.redis_selfstudy.product.Product;
+import org.springframework.data.domain.Range;
+import org.springframework.data.redis.connection.Limit;
+import org.springframework.data.redis.connection.ReturnType;
+import org.springframework.data.redis.core.RedisCallback;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.core.script.DefaultRedisScript;
+import org.springframework.data.redis.core.script.RedisScript;
+import org.springframework.data.redis.serializer.GenericToStringSerializer;
+import org.springframework.data.redis.serializer.RedisSerializer;
+import org.springframework.stereotype.Repository;
+
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Base64;
+import java.util.Collection;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Note. Redis Sorted Set 기반 상품 보조 인덱스
+ * 1. product:idx:price - score = 가격, member = 상품 ID (가격 범위 조회)
+ * 2. product:idx:name  - score = 0, member = "이름\0ID" (이름 사전순 조회, ZRANGEBYLEX)
+ * 3. product:idx:names - Hash(ID -> 이름), 이름이 바뀌었을 때 이전 사전순 항목을 지우기 위해 필요
+ *
+ * 세 키는 Lua 스크립트로 한 번에 갱신되므로 인덱스끼리 어긋나지 않는다.
+ *
+ * 상품 캐시 쓰기와 인덱스 갱신도 한 스크립트로 묶는다. (indexWith / removeWith)
+ * - INDEX_LUA / UNINDEX_LUA 조각 뒤에 각 전략의 캐시 명령을 붙인 스크립트를 만든다. (KEYS[1..3]은 항상 인덱스 키)
+ * - 공통 캐시 명령: SET_AND_INDEX_SCRIPT(V2, V3), EVICT_AND_INDEX_SCRIPT(V1), EVICT_AND_UNINDEX_SCRIPT(V1~V3 삭제)
+ * - V5(버전 비교), V6(버킷 Hash)는 각 서비스에 자기 스크립트가 있다.
+ * - V4는 @CacheEvict가 메서드 반환 뒤에 캐시를 지우므로 INDEX_SCRIPT를 따로 호출한다. (캐시는 지우기만 하므로 다음 조회가 저장소에서 다시 채움)
+ *
+ * 페이지 커서는 건너뛸 개수(offset)가 아니라 "마지막으로 본 항목의 위치"다.
+ * 페이지 사이에 상품이 추가/삭제되어도 항목이 빠지거나 중복되지 않는다.
+ * - 가격: "{가격}_{ID}" - 같은 가격 안에서는 Redis처럼 member(ID 문자열) 바이트순
+ * - 이름: 이름 인덱스 member("이름\0ID")의 Base64(URL-safe)
+ */
+@Repository
+public class ProductIndexRepository {
+
+    public static final String PRICE_INDEX_KEY = "product:idx:price";
+    public static final String NAME_INDEX_KEY = "product:idx:name";
+    public static final String NAME_LOOKUP_KEY = "product:idx:names";
+    private static final char NAME_SEPARATOR = '\0'; // 어떤 출력 가능한 문자보다 작아서 이름 정렬 순서를 해치지 않음
+    private static final int REBUILD_BATCH_SIZE = 500;
+
+    /**
+     * 인덱스 추가/갱신 Lua 조각 - 캐시 쓰기 스크립트 앞(또는 조건문 안)에 붙여 쓴다.
+     * KEYS[1] = 가격 인덱스, KEYS[2] = 이름 인덱스, KEYS[3] = ID -> 이름 Hash
+     * ARGV[1] = ID, ARGV[2] = 가격, ARGV[3] = 이름
+     */
+    public static final String INDEX_LUA = """
+            local oldName = redis.call('HGET', KEYS[3], ARGV[1])
+            if oldName then
+                redis.call('ZREM', KEYS[2], oldName .. '\\0' .. ARGV[1])
+            end
+            redis.call('ZADD', KEYS[1], ARGV[2], ARGV[1])
+            redis.call('ZADD', KEYS[2], 0, ARGV[3] .. '\\0' .. ARGV[1])
+            redis.call('HSET', KEYS[3], ARGV[1], ARGV[3])
+            """;
+
+    /**
+     * 인덱스 제거 Lua 조각
+     * KEYS[1] = 가격 인덱스, KEYS[2] = 이름 인덱스, KEYS[3] = ID -> 이름 Hash
+     * ARGV[1] = ID
+     */
+    public static final String UNINDEX_LUA = """
+            local oldName = redis.call('HGET', KEYS[3], ARGV[1])
+            if oldName then
+                redis.call('ZREM', KEYS[2], oldName .. '\\0' .. ARGV[1])
+            end
+            redis.call('ZREM', KEYS[1], ARGV[1])
+            redis.call('HDEL', KEYS[3], ARGV[1])
+            """;
+
+    public static final RedisScript<Long> INDEX_SCRIPT = new DefaultRedisScript<>(INDEX_LUA + "return 1\n", Long.class);
+
+    public static final RedisScript<Long> UNINDEX_SCRIPT = new DefaultRedisScript<>(UNINDEX_LUA + "return 1\n", Long.class);
+
+    /**
+     * 캐시 값 쓰기 + 인덱스 (Write-Through / Write-Back)
+     * KEYS[4] = 캐시 키, ARGV[4] = 직렬화된 값, ARGV[5] = TTL(초)
+     */
+    public static final RedisScript<Long> SET_AND_INDEX_SCRIPT = new DefaultRedisScript<>(INDEX_LUA + """
+            redis.call('SET', KEYS[4], ARGV[4], 'EX', ARGV[5])
+            return 1
+            """, Long.class);
+
+    /**
+     * 캐시 무효화 + 인덱스 (Cache-Aside 저장/수정)
+     * KEYS[4] = 캐시 키
+     */
+    public static final RedisScript<Long> EVICT_AND_INDEX_SCRIPT = new DefaultRedisScript<>(INDEX_LUA + """
+            redis.call('DEL', KEYS[4])
+            return 1
+            """, Long.class);
+
+    /**
+     * 캐시 무효화 + 인덱스 제거 (삭제)
+     * KEYS[4] = 캐시 키
+     */
+    public static final RedisScript<Long> EVICT_AND_UNINDEX_SCRIPT = new DefaultRedisScript<>(UNINDEX_LUA + """
+            redis.call('DEL', KEYS[4])
+            return 1
+            """, Long.class);
+
+    /**
+     * KEYS[1] = 가격 인덱스
+     * ARGV[1] = 최소 가격, ARGV[2] = 최대 가격, ARGV[3] = 개수, ARGV[4] = 마지막 가격(첫 페이지는 ''), ARGV[5] = 마지막 ID
+     * 1. 마지막 가격과 같은 가격 중 마지막 ID 뒤의 항목 (같은 점수는 member 바이트순 - ID는 숫자라 Lua 문자열 비교와 같음)
+     * 2. 마지막 가격 초과 ~ 최대 가격
+     * 반환: { member, score, member, score, ... }
+     */
+    @SuppressWarnings("rawtypes")
+    public static final RedisScript<List> PRICE_PAGE_SCRIPT = new DefaultRedisScript<>("""
+            local count = tonumber(ARGV[3])
+            local result = {}
+            local from = ARGV[1]
+            if ARGV[4] ~= '' then
+                local ties = redis.call('ZRANGEBYSCORE', KEYS[1], ARGV[4], ARGV[4])
+                for _, member in ipairs(ties) do
+                    if #result >= count * 2 then
+                        break
+                    end
+                    if member > ARGV[5] then
+                        result[#result + 1] = member
+                        result[#result + 1] = ARGV[4]
+                    end
+                end
+                from = '(' .. ARGV[4]
+            end
+            if #result < count * 2 then
+                local rest = redis.call('ZRANGEBYSCORE', KEYS[1], from, ARGV[2], 'WITHSCORES', 'LIMIT', 0, count - #result / 2)
+                for _, value in ipairs(rest) do
+                    result[#result + 1] = value
+                end
+            end
+            return result
+            """, List.class);
+
+    private static final RedisSerializer<Long> RESULT_SERIALIZER = new GenericToStringSerializer<>(Long.class);
+    private static final List<String> INDEX_KEYS = List.of(PRICE_INDEX_KEY, NAME_INDEX_KEY, NAME_LOOKUP_KEY);
+    private static final byte[] NAME_INDEX_KEY_BYTES = NAME_INDEX_KEY.getBytes(StandardCharsets.UTF_8);
+    private static final char CURSOR_SEPARATOR = '_';
+
+    /**
+     * 인덱스 조회 결과 한 건
+     * @param id : 상품 ID
+     * @param cursor : 이 항목 바로 뒤부터 조회할 때 넘길 커서
+     */
+    public record IndexEntry(Long id, String cursor) {
+    }
+
+    private final StringRedisTemplate stringRedisTemplate;
+
+    public ProductIndexRepository(StringRedisTemplate stringRedisTemplate) {
+        this.stringRedisTemplate = stringRedisTemplate;
+    }
+
+    /**
+     * 상품의 가격/이름 인덱스만 추가 또는 갱신한다. (캐시 쓰기가 없는 경로 - V4)
+     */
+    public void index(Product product) {
+        indexWith(INDEX_SCRIPT, product, List.of());
+    }
+
+    /**
+     * 상품의 가격/이름 인덱스만 제거한다.
+     */
+    public void remove(Long id) {
+        removeWith(UNINDEX_SCRIPT, id, List.of());
+    }
+
+    /**
+     * 인덱스 갱신과 캐시 쓰기를 스크립트 하나로 실행한다. Redis는 스크립트를 통째로 실행하므로 둘 사이에 다른 명령이 끼지 않고,
+     * 둘 중 하나만 반영되는 일도 없다.
+     * @param script : INDEX_LUA를 포함한 스크립트 (KEYS = 인덱스 키 3개 + cacheKeys, ARGV = ID, 가격, 이름 + cacheArgs)
+     * @return : 스크립트 반환값
+     */
+    public Long indexWith(RedisScript<Long> script, Product product, List<String> cacheKeys, byte[]... cacheArgs) {
+        return execute(script, cacheKeys, cacheArgs,
+                utf8(String.valueOf(product.getId())), utf8(String.valueOf(product.getPrice())), utf8(nameOf(product)));
+    }
+
+    /**
+     * 인덱스 제거와 캐시 무효화를 스크립트 하나로 실행한다.
+     * @param script : UNINDEX_LUA를 포함한 스크립트 (KEYS = 인덱스 키 3개 + cacheKeys, ARGV = ID + cacheArgs)
+     */
+    public Long removeWith(RedisScript<Long> script, Long id, List<String> cacheKeys, byte[]... cacheArgs) {
+        return execute(script, cacheKeys, cacheArgs, utf8(String.valueOf(id)));
+    }
+
+    private Long execute(RedisScript<Long> script, List<String> cacheKeys, byte[][] cacheArgs, byte[]... indexArgs) {
+        List<String> keys = new ArrayList<>(INDEX_KEYS.size() + cacheKeys.size());
+        keys.addAll(INDEX_KEYS);
+        keys.addAll(cacheKeys);
+        Object[] args = new Object[indexArgs.length + cacheArgs.length];
+        System.arraycopy(indexArgs, 0, args, 0, indexArgs.length);
+        System.arraycopy(cacheArgs, 0, args, indexArgs.length, cacheArgs.length);
+        return stringRedisTemplate.execute(script, RedisSerializer.byteArray(), RESULT_SERIALIZER, keys, args);
+    }
+
+    private static byte[] utf8(String value) {
+        return value.getBytes(StandardCharsets.UTF_8);
+    }
+
+    /**
+     * 가격 범위에 해당하는 상품 ID를 가격 오름차순으로 조회한다.
+     * @param cursor : 이전 조회의 마지막 항목 커서 (첫 페이지는 null 또는 빈 문자열)
+     * @param count : 가져올 개수
+     */
+    public List<IndexEntry> findByPriceRange(int minPrice, int maxPrice, String cursor, int count) {
+        String lastScore = "";
+        String lastMember = "";
+        if (cursor != null && !cursor.isEmpty()) {
+            int separator = cursor.lastIndexOf(CURSOR_SEPARATOR);
+            if (separator <= 0) {
+                throw new IllegalArgumentException("잘못된 커서: " + cursor);
+            }
+            lastScore = cursor.substring(0, separator);
+            lastMember = cursor.substring(separator + 1);
+            double score = Double.parseDouble(lastScore); // 형식 오류는 NumberFormatException(IllegalArgumentException)
+            Long.parseLong(lastMember);
+            // NaN/Infinity는 Redis가 점수로 받지 않고, 범위 밖 커서는 스크립트의 같은 가격 검색이 minPrice 아래 항목을 돌려준다.
+            // (이름 커서의 prefix 검사와 같은 역할)
+            if (!Double.isFinite(score) || score < minPrice || score > maxPrice) {
+                throw new IllegalArgumentException("이 가격 범위의 커서가 아닙니다: " + cursor);
+            }
+        }
+
+        List<?> result = stringRedisTemplate.execute(PRICE_PAGE_SCRIPT, RedisSerializer.string(), RedisSerializer.string(),
+                List.of(PRICE_INDEX_KEY), String.valueOf(minPrice), String.valueOf(maxPrice), String.valueOf(count),
+                lastScore, lastMember);
+        List<IndexEntry> entries = new ArrayList<>();
+        if (result != null) {
+            for (int i = 0; i + 1 < result.size(); i += 2) {
+                String member = String.valueOf(result.get(i));
+                entries.add(new IndexEntry(Long.valueOf(member), result.get(i + 1) + String.valueOf(CURSOR_SEPARATOR) + member));
+            }
+        }
+        return entries;
+    }
+
+    /**
+     * 이름이 prefix로 시작하는 상품 ID를 이름 사전순으로 조회한다.
+     * ZRANGEBYLEX는 바이트로 비교하므로 범위도 바이트로 만든다.
+     * 상한 = prefix 바이트 + 0xFF (미포함): 0xFF는 UTF-8에 나오지 않는 바이트라 prefix로 시작하는 모든 이름(4바이트 문자 포함)이 이보다 작다.
+     * @param cursor : 이전 조회의 마지막 항목 커서 (첫 페이지는 null 또는 빈 문자열)
+     */
+    public List<IndexEntry> findByNamePrefix(String prefix, String cursor, int count) {
+        byte[] prefixBytes = prefix.getBytes(StandardCharsets.UTF_8);
+        byte[] upper = Arrays.copyOf(prefixBytes, prefixBytes.length + 1);
+        upper[prefixBytes.length] = (byte) 0xFF;
+
+        Range.Bound<byte[]> lower = Range.Bound.inclusive(prefixBytes);
+        if (cursor != null && !cursor.isEmpty()) {
+            byte[] lastMember = Base64.getUrlDecoder().decode(cursor); // 형식 오류는 IllegalArgumentException
+            if (!startsWith(lastMember, prefixBytes)) {
+                throw new IllegalArgumentException("이 prefix의 커서가 아닙니다: " + cursor);
+            }
+            lower = Range.Bound.exclusive(lastMember);
+        }
+        Range<byte[]> range = Range.of(lower, Range.Bound.exclusive(upper));
+
+        Set<byte[]> members = stringRedisTemplate.execute((RedisCallback<Set<byte[]>>) connection ->
+                connection.zSetCommands().zRangeByLex(NAME_INDEX_KEY_BYTES, range, Limit.limit().count(count)));
+        List<IndexEntry> entries = new ArrayList<>();
+        if (members != null) {
+            for (byte[] member : members) {
+                String text = new String(member, StandardCharsets.UTF_8);
+                entries.add(new IndexEntry(Long.valueOf(text.substring(text.lastIndexOf(NAME_SEPARATOR) + 1)),
+                        Base64.getUrlEncoder().withoutPadding().encodeToString(member)));
+            }
+        }
+        return entries;
+    }
+
+    private static boolean startsWith(byte[] value, byte[] prefix) {
+        return value.length >= prefix.length && Arrays.equals(value, 0, prefix.length, prefix, 0, prefix.length);
+    }
+
+    /**
+     * 저장소의 상품을 인덱스에 채워 넣는다. (추가/갱신만 하고 지우지 않음)
+     * - 인덱스는 여러 인스턴스가 공유하고, 기동 직후의 인메모리 저장소는 비어 있다.
+     *   그래서 "저장소에 없는 항목"을 지우면 다른 인스턴스의 인덱스를 날리게 된다.
+     * - 상품마다 index()와 같은 INDEX_SCRIPT를 파이프라인(EVALSHA)으로 보낸다. 임시 키를 만들어 RENAME으로 덮어쓰지 않으므로
+     *   재구축 중에 들어온 index()/remove()가 지워지지 않는다.
+     * @return : 인덱스에 반영한 상품 수
+     */
+    public int rebuild(Collection<Product> products) {
+        if (products.isEmpty()) {
+            return 0;
+        }
+        byte[] scriptBytes = utf8(INDEX_SCRIPT.getScriptAsString());
+        String sha = stringRedisTemplate.execute((RedisCallback<String>) connection ->
+                connection.scriptingCommands().scriptLoad(scriptBytes)); // 파이프라인 안의 EVALSHA가 NOSCRIPT로 실패하지 않도록
+
+        byte[][] indexKeys = INDEX_KEYS.stream().map(ProductIndexRepository::utf8).toArray(byte[][]::new);
+        List<Product> batch = new ArrayList<>(REBUILD_BATCH_SIZE);
+        for (Product product : products) {
+            batch.add(product);
+            if (batch.size() == REBUILD_BATCH_SIZE) {
+                writeRebuildBatch(sha, indexKeys, batch);
+                batch.clear();
+            }
+        }
+        if (!batch.isEmpty()) {
+            writeRebuildBatch(sha, indexKeys, batch);
+        }
+        return products.size();
+    }
+
+    private void writeRebuildBatch(String sha, byte[][] indexKeys, List<Product> batch) {
+        stringRedisTemplate.executePipelined((RedisCallback<Object>) connection -> {
+            for (Product product : batch) {
+                connection.scriptingCommands().evalSha(sha, ReturnType.INTEGER, indexKeys.length,
+                        indexKeys[0], indexKeys[1], indexKeys[2],
+                        utf8(String.valueOf(product.getId())), utf8(String.valueOf(product.getPrice())), utf8(nameOf(product)));
+            }
+            return null;
+        });
+    }
+
+    private static String nameOf(Product product) {
+        return product.getName() != null ? product.getName() : "";
+    }
+}
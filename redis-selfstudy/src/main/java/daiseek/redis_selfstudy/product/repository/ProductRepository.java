@@ -2,6 +2,8 @@ package daiseek.redis_selfstudy.product.repository;
 
 import daiseek.redis_selfstudy.product.Product;
 
+import java.util.Collection;
+import java.util.List;
 import java.util.Optional;
 
 public interface ProductRepository {
@@ -10,5 +12,15 @@ public interface ProductRepository {
 
     Optional<Product> findById(Long id);
 
-    void deleteById(Long id);
+    List<Product> findAllById(Collection<Long> ids);
+
+    List<Product> findAll();
+
+    /**
+     * 삭제하고 삭제 버전을 발급한다. (상품이 없어도 발급)
+     * 저장/삭제 버전은 같은 키의 쓰기와 원자적으로 발급되므로, 버전 순서가 곧 저장소에 반영된 순서다.
+     * 캐시 항목의 버전 비교(Compare-And-Set)에 사용된다.
+     * @return : 삭제 버전
+     */
+    long deleteById(Long id);
 }
@@ -1,47 +1,126 @@
 package daiseek.redis_selfstudy.product.repository;
 
+import daiseek.redis_selfstudy.jfr.RepositoryCallEvent;
 import daiseek.redis_selfstudy.product.Product;
+import jdk.jfr.EventType;
 import org.springframework.beans.factory.annotation.Qualifier;
 import org.springframework.stereotype.Repository;
 
-import java.util.HashMap;
-import java.util.Map;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
 import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.atomic.AtomicLong;
 
 @Repository
 @Qualifier("inMemoryProductRepository")
 public class ProductRepositoryV1 implements ProductRepository{
 
-    // 실제 DB 역할을 대신할 Map (스레드 안전성을 위해 ConcurrentHashMap을 사용할 수도 있음)
-    private final Map<Long, Product> storage = new HashMap<>();
+    private static final EventType EVENT_TYPE = EventType.getEventType(RepositoryCallEvent.class);
+
+    // 실제 DB 역할을 대신할 Map (여러 요청 스레드가 동시에 쓰므로 ConcurrentHashMap)
+    // 쓰기는 compute 안에서 버전 발급과 저장을 함께 한다. (같은 키의 쓰기는 compute가 순서대로 처리)
+    // -> 버전이 더 큰 쓰기가 항상 나중에 저장됨. V5의 버전 비교가 저장소와 같은 순서를 보장받는다.
+    private final ConcurrentHashMap<Long, Product> storage = new ConcurrentHashMap<>();
     private final AtomicLong sequence = new AtomicLong(0); // ID 생성을 위한 시퀀스
+    private final AtomicLong versionSequence = new AtomicLong(0); // 쓰기 버전 생성을 위한 시퀀스
 
     // 새로운 상품 저장
     public Product save(Product product) {
+        RepositoryCallEvent event = begin();
         if (product.getId() == null) {
             product.setId(sequence.incrementAndGet()); // 새 ID 할당
         }
-        storage.put(product.getId(), product);
+        storage.compute(product.getId(), (id, previous) -> {
+            product.setVersion(nextVersion()); // 쓰기마다 새 버전 부여 (저장과 원자적으로)
+            return product;
+        });
         System.out.println("메모리에 Product 저장: " + product);
+        commit(event, "save", product.getId(), 1);
         return product;
     }
 
     // ID로 상품 조회
     public Optional<Product> findById(Long id) {
         System.out.println("메모리에서 Product 조회: " + id);
+        RepositoryCallEvent event = begin();
         // 실제 DB 조회 지연을 흉내내기 위해 잠시 대기
         try {
             Thread.sleep(500); // 0.5초 지연
         } catch (InterruptedException e) {
             Thread.currentThread().interrupt();
         }
-        return Optional.ofNullable(storage.get(id));
+        Product product = storage.get(id);
+        commit(event, "findById", id, product != null ? 1 : 0);
+        return Optional.ofNullable(product);
+    }
+
+    // 여러 ID로 상품 조회 (한 번의 DB 왕복으로 가정)
+    public List<Product> findAllById(Collection<Long> ids) {
+        System.out.println("메모리에서 Product 다건 조회: " + ids);
+        RepositoryCallEvent event = begin();
+        try {
+            Thread.sleep(500); // 0.5초 지연 (다건이어도 한 번의 쿼리로 가정)
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        List<Product> products = new ArrayList<>();
+        for (Long id : ids) {
+            Product product = storage.get(id);
+            if (product != null) {
+                products.add(product);
+            }
+        }
+        commit(event, "findAllById", -1L, products.size());
+        return products;
+    }
+
+    // 전체 상품 조회 (인덱스 재구축용)
+    public List<Product> findAll() {
+        return new ArrayList<>(storage.values());
     }
 
     // 상품 삭제
-    public void deleteById(Long id) {
+    public long deleteById(Long id) {
         System.out.println("메모리에서 Product 삭제: " + id);
-        storage.remove(id);
+        RepositoryCallEvent event = begin();
+        long[] deleteVersion = new long[1];
+        Product[] removed = new Product[1];
+        storage.compute(id, (key, previous) -> {
+            deleteVersion[0] = nextVersion(); // 삭제 버전도 삭제와 원자적으로
+            removed[0] = previous;
+            return null;
+        });
+        commit(event, "deleteById", id, removed[0] != null ? 1 : 0);
+        return deleteVersion[0];
+    }
+
+    // JFR 저장소 호출 이벤트 (녹화 중이 아니면 null - 이벤트 객체를 만들지 않음)
+    private static RepositoryCallEvent begin() {
+        if (!EVENT_TYPE.isEnabled()) {
+            return null;
+        }
+        RepositoryCallEvent event = new RepositoryCallEvent();
+        event.begin();
+        return event;
+    }
+
+    private static void commit(RepositoryCallEvent event, String operation, Long productId, int rows) {
+        if (event == null) {
+            return;
+        }
+        event.end();
+        if (event.shouldCommit()) {
+            event.operation = operation;
+            event.productId = productId != null ? productId : -1L;
+            event.rows = rows;
+            event.commit();
+        }
+    }
+
+    // 쓰기 버전 발급 (저장/삭제 모두 같은 시퀀스를 사용하므로 항상 증가함, compute 안에서만 호출)
+    private long nextVersion() {
+        return versionSequence.incrementAndGet();
     }
 }
\ No newline at end of file
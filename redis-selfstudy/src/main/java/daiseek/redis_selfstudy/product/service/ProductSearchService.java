@@ -0,0 +1,157 @@
+package daiseek.redis_selfstudy.product.service;
+
+import daiseek.redis_selfstudy.product.Product;
+import daiseek.redis_selfstudy.product.ProductPage;
+import daiseek.redis_selfstudy.product.repository.ProductIndexRepository;
+import daiseek.redis_selfstudy.product.repository.ProductRepository;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.context.SmartLifecycle;
+import org.springframework.data.redis.core.RedisTemplate;
+import org.springframework.stereotype.Service;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Note. 목록/범위 조회 서비스
+ * 1. Sorted Set 인덱스(ProductIndexRepository)에서 ID 목록만 가져온다.
+ * 2. 값은 MGET 한 번으로 캐시에서 가져온다.
+ * 3. 캐시에 없는 상품만 DB(메모리)에서 한 번에 조회한다.
+ * 저장소의 storage 전체를 훑지 않아도 된다.
+ *
+ * 기동 시 인덱스 재구축은 SmartLifecycle로 웹 서버가 요청을 받기 전에 끝낸다.
+ */
+@Service
+public class ProductSearchService implements SmartLifecycle {
+
+    /**
+     * 웹 서버(WebServerStartStopLifecycle, DEFAULT_PHASE - 2048)보다 먼저, Redis 연결 팩토리(phase 0)보다는 나중에 시작한다.
+     */
+    private static final int REBUILD_PHASE = SmartLifecycle.DEFAULT_PHASE - 4096;
+
+    private static final int MAX_PAGE_SIZE = 100;
+
+    private final ProductIndexRepository productIndexRepository;
+    private final ProductRepository productRepositoryV1; // 가상 DB 역할
+    private final RedisTemplate<Long, Object> productRedisTemplate; // 키 = 상품 ID (ProductKeyCodec)
+    private volatile boolean running;
+
+    public ProductSearchService(ProductIndexRepository productIndexRepository,
+                                @Qualifier("inMemoryProductRepository") ProductRepository productRepositoryV1,
+                                RedisTemplate<Long, Object> productRedisTemplate) {
+        this.productIndexRepository = productIndexRepository;
+        this.productRepositoryV1 = productRepositoryV1;
+        this.productRedisTemplate = productRedisTemplate;
+    }
+
+    /**
+     * 가격 범위 조회 (가격 오름차순)
+     * @param cursor : 이전 페이지에서 받은 nextCursor (첫 페이지는 빈 문자열)
+     */
+    public ProductPage searchByPrice(int minPrice, int maxPrice, String cursor, int size) {
+        int pageSize = Math.min(Math.max(size, 1), MAX_PAGE_SIZE);
+        // 한 개 더 가져와서 다음 페이지 존재 여부를 판단
+        List<ProductIndexRepository.IndexEntry> entries = productIndexRepository.findByPriceRange(minPrice, maxPrice, cursor, pageSize + 1);
+        return toPage(entries, pageSize);
+    }
+
+    /**
+     * 이름 접두어 조회 (이름 사전순)
+     */
+    public ProductPage searchByName(String prefix, String cursor, int size) {
+        int pageSize = Math.min(Math.max(size, 1), MAX_PAGE_SIZE);
+        List<ProductIndexRepository.IndexEntry> entries = productIndexRepository.findByNamePrefix(prefix, cursor, pageSize + 1);
+        return toPage(entries, pageSize);
+    }
+
+    /**
+     * 콜드 스타트 시 인덱스 재구축
+     * Redis에 남아있던 인덱스에 현재 저장소의 상품을 다시 반영한다.
+     * - 웹 서버 시작 전에 실행되므로 재구축 도중 들어온 쓰기가 덮어써지는 일이 없다.
+     * - 재구축은 추가/갱신만 한다. 저장소가 비어 있으면(인메모리 저장소의 첫 기동) 공유 인덱스를 그대로 둔다.
+     * (CDS 학습 실행의 spring.context.exit=onRefresh는 lifecycle 시작 전에 종료하므로 Redis에 쓰지 않는다)
+     */
+    @Override
+    public void start() {
+        List<Product> products = productRepositoryV1.findAll();
+        if (products.isEmpty()) {
+            System.out.println("ProductSearchService: 저장소가 비어 있어 인덱스 재구축을 건너뜀.");
+        } else {
+            int indexed = productIndexRepository.rebuild(products);
+            System.out.println("ProductSearchService: 상품 인덱스 재구축 완료. 상품 수: " + indexed);
+        }
+        running = true;
+    }
+
+    @Override
+    public void stop() {
+        running = false;
+    }
+
+    @Override
+    public boolean isRunning() {
+        return running;
+    }
+
+    @Override
+    public int getPhase() {
+        return REBUILD_PHASE;
+    }
+
+    /**
+     * 다음 커서 = 이번 페이지 마지막 항목의 위치 (페이지 사이의 추가/삭제에 영향받지 않음)
+     */
+    private ProductPage toPage(List<ProductIndexRepository.IndexEntry> entries, int pageSize) {
+        String nextCursor = null;
+        if (entries.size() > pageSize) {
+            entries = entries.subList(0, pageSize);
+            nextCursor = entries.get(pageSize - 1).cursor();
+        }
+        List<Long> ids = new ArrayList<>(entries.size());
+        for (ProductIndexRepository.IndexEntry entry : entries) {
+            ids.add(entry.id());
+        }
+        return new ProductPage(resolve(ids), nextCursor);
+    }
+
+    /**
+     * ID 목록을 상품으로 변환한다. MGET 한 번 + 캐시 미스분만 DB 다건 조회 한 번.
+     */
+    private List<Product> resolve(List<Long> ids) {
+        if (ids.isEmpty()) {
+            return List.of();
+        }
+
+        // 상품 ID 목록을 그대로 넘기면 ProductKeyCodec이 "product:{id}" 키로 인코딩한다.
+        List<Object> cached = productRedisTemplate.opsForValue().multiGet(ids);
+
+        Map<Long, Product> found = new HashMap<>();
+        List<Long> missedIds = new ArrayList<>();
+        for (int i = 0; i < ids.size(); i++) {
+            Object value = cached != null ? cached.get(i) : null;
+            if (value instanceof Product product) {
+                found.put(ids.get(i), product);
+            } else {
+                missedIds.add(ids.get(i));
+            }
+        }
+
+        if (!missedIds.isEmpty()) {
+            System.out.println("ProductSearchService: Cache miss for product IDs: " + missedIds);
+            for (Product product : productRepositoryV1.findAllById(missedIds)) {
+                found.put(product.getId(), product);
+            }
+        }
+
+        List<Product> products = new ArrayList<>(ids.size());
+        for (Long id : ids) {
+            Product product = found.get(id);
+            if (product != null) { // 인덱스엔 있지만 이미 삭제된 상품은 건너뜀
+                products.add(product);
+            }
+        }
+        return products;
+    }
+}
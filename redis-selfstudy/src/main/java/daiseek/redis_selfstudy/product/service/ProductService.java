@@ -2,7 +2,9 @@ package daiseek.redis_selfstudy.product.service;
 
 import daiseek.redis_selfstudy.product.Product;
 
+import java.time.Duration;
 import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
 
 /** ProductService는 여러 구현체로 이루어진다.
  * 이 프로젝트의 목적은 레디스의 여러가지 캐시 전략을 살펴보는 것이기 때문에 코드를 보존하는게 중요하다고 생각했다.
@@ -18,6 +20,17 @@ public interface ProductService {
      */
     public Optional<Product> getProductById(Long id);
 
+    /**
+     * 상품 비동기 조회 메서드
+     * 기본 구현은 동기 조회 결과를 감싸기만 한다. (요청 스레드에서 조회가 끝난 뒤 반환)
+     * 비동기 캐시를 지원하는 구현체(V4)는 이 메서드를 재정의한다.
+     * @param id : 조회하려는 상품의 아이디
+     * @return : 상품 객체, 없으면 null로 완료
+     */
+    default CompletableFuture<Product> getProductByIdAsync(Long id) {
+        return CompletableFuture.completedFuture(getProductById(id).orElse(null));
+    }
+
     /**
      * 상품 생성 메서드
      * @param product : 상품 객체(직렬화된 데이터로 입력됨)
@@ -38,4 +51,36 @@ public interface ProductService {
      */
     Product updateProduct(Product product);
 
+    /**
+     * 이 구현체가 상품을 캐시하는 키 형식 (예: product:{id})
+     * 라우터는 한 전략으로 쓴 뒤, 키 형식이 다른 전략들의 캐시만 무효화한다. (같은 키를 쓰는 전략끼리는 이미 반영됨)
+     * @return : 키 형식 설명
+     */
+    String cacheKeyFormat();
+
+    /**
+     * 상품 하나의 실제 캐시 키 (JFR 이벤트 기록용)
+     * @param id : 상품의 아이디
+     * @return : cacheKeyFormat의 {id}를 채운 키
+     */
+    default String cacheKey(Long id) {
+        return cacheKeyFormat().replace("{id}", String.valueOf(id));
+    }
+
+    /**
+     * 캐시에서 상품 하나를 무효화한다. (저장소는 건드리지 않음)
+     * @param id : 무효화하려는 상품의 아이디
+     */
+    void evictCache(Long id);
+
+    /**
+     * 아직 저장소에 반영되지 않은 쓰기가 모두 반영될 때까지 기다린다.
+     * 라우터가 이 구현체로 가는 트래픽을 끊을 때 호출한다. 쓰기를 미루지 않는 구현체는 바로 true를 반환한다.
+     * @param timeout : 최대 대기 시간
+     * @return : 시간 안에 모두 반영되었는지 여부
+     */
+    default boolean drainPendingWrites(Duration timeout) {
+        return true;
+    }
+
 }
@@ -0,0 +1,321 @@
+package daiseek.redis_selfstudy.product.service;
+
+import daiseek.redis_selfstudy.jfr.CacheOutcomeTracker;
+import daiseek.redis_selfstudy.jfr.CacheOutcomeTracker.Outcome;
+import daiseek.redis_selfstudy.jfr.ProductCacheEvent;
+import daiseek.redis_selfstudy.jfr.SerializedBytesTracker;
+import daiseek.redis_selfstudy.product.Product;
+import daiseek.redis_selfstudy.product.RoutingStatus;
+import daiseek.redis_selfstudy.product.StrategyStats;
+import jdk.jfr.EventType;
+import org.springframework.beans.factory.SmartInitializingSingleton;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationContext;
+import org.springframework.stereotype.Service;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.locks.LockSupport;
+import java.util.function.Function;
+
+/**
+ * Note. 캐싱 전략 라우터
+ * 컨트롤러는 이 빈 하나만 주입받고, 실제 처리는 정책(RoutingPolicy)이 고른 전략(ProductService 빈)에 맡긴다.
+ * 재배포 없이 운영 트래픽에서 전략을 바꾸거나 나눠서 비교하기 위한 용도다.
+ *
+ * 1. 전략 목록: 컨텍스트의 모든 ProductService 빈 (자기 자신 제외) - 새 전략은 빈으로 등록만 하면 라우팅 대상이 된다.
+ * 2. 정책 전환 (switchPolicy)
+ *    - 새 정책을 먼저 적용해서 새 요청은 바로 새 전략으로 보낸다.
+ *    - 트래픽이 끊긴 전략은 진행 중인 요청이 모두 끝날 때까지 기다린 뒤, 미뤄둔 쓰기(V3 Write-Back)를 모두 반영시킨다.
+ *      그래야 다른 전략이 캐시 미스로 DB를 읽을 때 예전 값을 보지 않는다.
+ * 3. 캐시 일관성: 한 전략으로 쓴 뒤 키 형식이 다른 전략들의 캐시를 무효화한다. (V1~V3, V5는 product:{id}, V4는 product::{id})
+ *    - 비율 분할에서 V3와 키 형식이 다른 전략을 섞으면, Write-Back이 DB에 반영되기 전의 미스가 예전 값을 캐시할 수 있다.
+ *      상품별로 전략을 고정하려면 해시 정책을 쓴다.
+ * 4. 통계: 전략별 요청 수, 히트/미스(전략이 CacheOutcomeTracker에 기록한 결과), 조회 지연 p50/p99
+ * 5. JFR: 동기 호출마다 ProductCacheEvent (전략, 키, 결과, 직렬화 바이트 수, 지속 시간) - 개별 느린 요청 분석용
+ */
+@Service
+@Qualifier("productServiceRouter")
+public class ProductServiceRouter implements ProductService, SmartInitializingSingleton {
+
+    private static final Duration DRAIN_TIMEOUT = Duration.ofSeconds(30);
+    private static final EventType EVENT_TYPE = EventType.getEventType(ProductCacheEvent.class);
+
+    private final ApplicationContext applicationContext;
+    private final String defaultStrategy;
+
+    // afterSingletonsInstantiated에서 한 번 채운 뒤로는 읽기만 함
+    private final Map<String, ProductService> delegates = new LinkedHashMap<>();
+    private final Map<String, StrategyMetrics> metrics = new LinkedHashMap<>();
+
+    private volatile RoutingPolicy policy;
+    private volatile Map<String, Boolean> lastDrain = Map.of();
+
+    public ProductServiceRouter(ApplicationContext applicationContext,
+                                @Value("${app.routing.default-strategy:productServiceV3}") String defaultStrategy) {
+        this.applicationContext = applicationContext;
+        this.defaultStrategy = defaultStrategy;
+    }
+
+    /**
+     * 모든 싱글톤 빈이 만들어진 뒤 전략 빈을 모은다. (생성자에서 모으면 순환 참조가 됨)
+     */
+    @Override
+    public void afterSingletonsInstantiated() {
+        applicationContext.getBeansOfType(ProductService.class).forEach((beanName, productService) -> {
+            if (productService != this) {
+                delegates.put(beanName, productService);
+                metrics.put(beanName, new StrategyMetrics(beanName));
+            }
+        });
+        policy = validate(new RoutingPolicy.Global(defaultStrategy));
+        System.out.println("ProductServiceRouter: 전략 " + delegates.keySet() + ", 정책 " + policy.describe());
+    }
+
+    // ===== 정책 =====
+
+    /**
+     * 정책을 바꾸고, 트래픽이 끊긴 전략의 진행 중 요청과 미뤄둔 쓰기가 끝날 때까지 기다린다.
+     * 정책 변경은 한 번에 하나씩만 처리한다.
+     */
+    public synchronized RoutingStatus switchPolicy(RoutingPolicy newPolicy) {
+        validate(newPolicy);
+        RoutingPolicy previous = policy;
+        policy = newPolicy;
+        System.out.println("ProductServiceRouter: 정책 변경 " + previous.describe() + " -> " + newPolicy.describe());
+
+        Map<String, Boolean> drained = new LinkedHashMap<>();
+        for (String strategy : previous.strategies()) {
+            if (!newPolicy.strategies().contains(strategy)) {
+                drained.put(strategy, drain(strategy));
+            }
+        }
+        lastDrain = drained;
+        return status();
+    }
+
+    public RoutingStatus status() {
+        List<StrategyStats> stats = new ArrayList<>();
+        metrics.values().forEach(strategyMetrics -> stats.add(strategyMetrics.snapshot()));
+        return new RoutingStatus(policy.describe(), List.copyOf(delegates.keySet()), lastDrain, stats);
+    }
+
+    public void resetStats() {
+        metrics.values().forEach(StrategyMetrics::reset);
+    }
+
+    private RoutingPolicy validate(RoutingPolicy candidate) {
+        for (String strategy : candidate.strategies()) {
+            if (!delegates.containsKey(strategy)) {
+                throw new IllegalArgumentException("알 수 없는 전략: " + strategy + " (사용 가능: " + delegates.keySet() + ")");
+            }
+        }
+        return candidate;
+    }
+
+    /**
+     * 1. 진행 중인 요청이 0이 될 때까지 대기 (새 요청은 이미 새 정책으로 감)
+     * 2. 미뤄둔 쓰기 반영 (V3 Write-Back 큐 비우기)
+     */
+    private boolean drain(String strategy) {
+        long deadline = System.nanoTime() + DRAIN_TIMEOUT.toNanos();
+        StrategyMetrics strategyMetrics = metrics.get(strategy);
+        while (strategyMetrics.inFlight() > 0) {
+            if (System.nanoTime() > deadline) {
+                System.err.println("ProductServiceRouter: " + strategy + " 진행 중 요청 대기 시간 초과");
+                return false;
+            }
+            LockSupport.parkNanos(1_000_000);
+        }
+        Duration remaining = Duration.ofNanos(Math.max(deadline - System.nanoTime(), 0));
+        return delegates.get(strategy).drainPendingWrites(remaining);
+    }
+
+    // ===== 라우팅 =====
+
+    private record Route(String strategy, ProductService productService, StrategyMetrics metrics) {
+    }
+
+    /**
+     * 전략을 고르고 진행 중 요청으로 등록한다.
+     * 등록 직후 정책이 바뀌었으면 다시 고른다. (정책 전환 쪽의 진행 중 요청 대기에서 빠지는 요청이 없도록)
+     */
+    private Route acquire(Long productId) {
+        while (true) {
+            RoutingPolicy current = policy;
+            String strategy = current.select(productId);
+            StrategyMetrics strategyMetrics = metrics.get(strategy);
+            strategyMetrics.enter();
+            if (policy == current) {
+                return new Route(strategy, delegates.get(strategy), strategyMetrics);
+            }
+            strategyMetrics.exit();
+        }
+    }
+
+    private <T> T write(String operation, Long productId, Function<ProductService, T> call, Function<T, Long> writtenId) {
+        Route route = acquire(productId);
+        long bytesBefore = SerializedBytesTracker.currentBytes();
+        ProductCacheEvent event = beginEvent();
+        try {
+            T result = call.apply(route.productService());
+            route.metrics().recordWrite();
+            Long id = writtenId.apply(result);
+            commit(event, route, operation, id, "written", bytesBefore);
+            evictOtherCaches(route, id);
+            return result;
+        } catch (RuntimeException e) {
+            route.metrics().recordError();
+            commit(event, route, operation, productId, "error", bytesBefore);
+            throw e;
+        } finally {
+            route.metrics().exit();
+        }
+    }
+
+    /**
+     * 쓴 전략과 키 형식이 다른 전략들의 캐시에서 상품을 지운다. (같은 키 형식은 쓴 전략이 이미 반영함)
+     */
+    private void evictOtherCaches(Route route, Long productId) {
+        if (productId == null) {
+            return;
+        }
+        Set<String> evictedFormats = new HashSet<>();
+        evictedFormats.add(route.productService().cacheKeyFormat());
+        for (ProductService productService : delegates.values()) {
+            if (evictedFormats.add(productService.cacheKeyFormat())) {
+                productService.evictCache(productId);
+            }
+        }
+    }
+
+    @Override
+    public Optional<Product> getProductById(Long id) {
+        Route route = acquire(id);
+        long bytesBefore = SerializedBytesTracker.currentBytes();
+        CacheOutcomeTracker.clear();
+        ProductCacheEvent event = beginEvent();
+        long startedAt = System.nanoTime();
+        try {
+            Optional<Product> product = route.productService().getProductById(id);
+            Outcome outcome = CacheOutcomeTracker.take(); // 전략(V4는 ProductRedisCache)이 직접 기록한 결과
+            route.metrics().recordRead(System.nanoTime() - startedAt, outcome);
+            commit(event, route, "read", id, outcome != null ? outcome.label() : "unknown", bytesBefore);
+            return product;
+        } catch (RuntimeException e) {
+            route.metrics().recordError();
+            commit(event, route, "read", id, "error", bytesBefore);
+            throw e;
+        } finally {
+            route.metrics().exit();
+        }
+    }
+
+    /**
+     * JFR 이벤트 시작. 녹화 중이 아니면 null (요청마다 이벤트 객체를 만들지 않음)
+     */
+    private static ProductCacheEvent beginEvent() {
+        if (!EVENT_TYPE.isEnabled()) {
+            return null;
+        }
+        ProductCacheEvent event = new ProductCacheEvent();
+        event.begin();
+        return event;
+    }
+
+    /**
+     * JFR 이벤트 기록. 녹화 중이 아니거나 임계값보다 빠르면 필드를 채우지 않고 빠진다. (키 문자열도 만들지 않음)
+     */
+    private static void commit(ProductCacheEvent event, Route route, String operation, Long productId, String outcome, long bytesBefore) {
+        if (event == null) {
+            return;
+        }
+        event.end();
+        if (!event.shouldCommit()) {
+            return;
+        }
+        event.strategy = route.strategy();
+        event.operation = operation;
+        event.productId = productId != null ? productId : -1L;
+        event.key = productId != null ? route.productService().cacheKey(productId) : null;
+        event.outcome = outcome;
+        event.serializedBytes = SerializedBytesTracker.currentBytes() - bytesBefore;
+        event.commit();
+    }
+
+    /**
+     * 비동기 조회는 다른 스레드에서 저장소를 조회할 수 있어 히트 여부는 세지 않고 지연만 센다.
+     * 진행 중 요청은 Future가 끝날 때 해제한다. (JFR 이벤트는 남기지 않음 - 완료 스레드에서는 직렬화 바이트를 셀 수 없음)
+     */
+    @Override
+    public CompletableFuture<Product> getProductByIdAsync(Long id) {
+        Route route = acquire(id);
+        long startedAt = System.nanoTime();
+        CompletableFuture<Product> future;
+        try {
+            future = route.productService().getProductByIdAsync(id);
+        } catch (RuntimeException e) {
+            route.metrics().recordError();
+            route.metrics().exit();
+            throw e;
+        }
+        return future.whenComplete((product, throwable) -> {
+            if (throwable != null) {
+                route.metrics().recordError();
+            } else {
+                route.metrics().recordRead(System.nanoTime() - startedAt, null);
+            }
+            route.metrics().exit();
+        });
+    }
+
+    @Override
+    public Product saveProduct(Product product) {
+        return write("save", product.getId(), productService -> productService.saveProduct(product), Product::getId);
+    }
+
+    @Override
+    public Product updateProduct(Product product) {
+        return write("update", product.getId(), productService -> productService.updateProduct(product), Product::getId);
+    }
+
+    @Override
+    public void deleteProduct(Long id) {
+        write("delete", id, productService -> {
+            productService.deleteProduct(id);
+            return id;
+        }, deletedId -> deletedId);
+    }
+
+    @Override
+    public String cacheKeyFormat() {
+        return "routed";
+    }
+
+    @Override
+    public void evictCache(Long id) {
+        Set<String> evictedFormats = new HashSet<>();
+        for (ProductService productService : delegates.values()) {
+            if (evictedFormats.add(productService.cacheKeyFormat())) {
+                productService.evictCache(id);
+            }
+        }
+    }
+
+    @Override
+    public boolean drainPendingWrites(Duration timeout) {
+        boolean drained = true;
+        for (ProductService productService : delegates.values()) {
+            drained &= productService.drainPendingWrites(timeout);
+        }
+        return drained;
+    }
+}
@@ -1,11 +1,16 @@
 package daiseek.redis_selfstudy.product.service;
 
+import daiseek.redis_selfstudy.config.ProductKeyCodec;
+import daiseek.redis_selfstudy.jfr.CacheOutcomeTracker;
+import daiseek.redis_selfstudy.jfr.CacheOutcomeTracker.Outcome;
 import daiseek.redis_selfstudy.product.Product;
+import daiseek.redis_selfstudy.product.repository.ProductIndexRepository;
 import daiseek.redis_selfstudy.product.repository.ProductRepositoryV1;
 import org.springframework.beans.factory.annotation.Qualifier;
 import org.springframework.data.redis.core.RedisTemplate;
 import org.springframework.stereotype.Service;
 
+import java.util.List;
 import java.util.Optional;
 import java.util.concurrent.TimeUnit;
 
@@ -36,12 +41,15 @@ import java.util.concurrent.TimeUnit;
 public class ProductServiceV1 implements ProductService {
 
     private final ProductRepositoryV1 productRepositoryV1;
-    private final RedisTemplate<String, Object> redisTemplate; // RedisTemplate 주입
+    private final RedisTemplate<Long, Object> productRedisTemplate; // 상품 키 전용 RedisTemplate 주입 (키 = 상품 ID)
+    private final ProductIndexRepository productIndexRepository; // 가격/이름 보조 인덱스
 
     // 생성자 주입
-    public ProductServiceV1(@Qualifier("inMemoryProductRepository") ProductRepositoryV1 productRepositoryV1, RedisTemplate<String, Object> redisTemplate) {
+    public ProductServiceV1(@Qualifier("inMemoryProductRepository") ProductRepositoryV1 productRepositoryV1, RedisTemplate<Long, Object> productRedisTemplate,
+                            ProductIndexRepository productIndexRepository) {
         this.productRepositoryV1 = productRepositoryV1;
-        this.redisTemplate = redisTemplate;
+        this.productRedisTemplate = productRedisTemplate;
+        this.productIndexRepository = productIndexRepository;
     }
 
     /**
@@ -54,21 +62,23 @@ public class ProductServiceV1 implements ProductService {
      */
     public Optional<Product> getProductById(Long id) {
         // 1. 캐시(Redis)에서 데이터 조회
-        String cacheKey = "product:" + id; // 캐시 키 정의 (예: "product:1")
-        Product cachedProduct = (Product) redisTemplate.opsForValue().get(cacheKey);
+        // 캐시 키는 ProductKeyCodec이 상품 ID를 "product:1" 바이트로 바로 인코딩 (문자열 결합 없음)
+        Product cachedProduct = (Product) productRedisTemplate.opsForValue().get(id);
 
         if (cachedProduct != null) {
             System.out.println("캐시(Redis)에서 Product 조회: " + id + " -> " + cachedProduct);
+            CacheOutcomeTracker.record(Outcome.HIT);
             return Optional.of(cachedProduct); // 캐시에 있으면 바로 반환
         }
 
         // 2. 캐시에 없으면 DB(가상)에서 조회 (Cache Miss)
         System.out.println("캐시 미스 발생. 데이터베이스(가상)에서 Product 조회: " + id);
+        CacheOutcomeTracker.record(Outcome.MISS);
         Optional<Product> productFromDb = productRepositoryV1.findById(id);
 
         // 3. DB에서 조회한 데이터가 있으면 캐시에 저장
         productFromDb.ifPresent(product -> {
-            redisTemplate.opsForValue().set(cacheKey, product, 5, TimeUnit.MINUTES); // 5분 TTL (Time To Live) 설정
+            productRedisTemplate.opsForValue().set(id, product, 5, TimeUnit.MINUTES); // 5분 TTL (Time To Live) 설정
             System.out.println("데이터베이스에서 조회한 Product를 캐시(Redis)에 저장: " + product);
         });
 
@@ -82,10 +92,10 @@ public class ProductServiceV1 implements ProductService {
     public Product saveProduct(Product product) {
         Product savedProduct = productRepositoryV1.save(product); // DB(가상)에 저장
 
-        // 캐시 무효화 (기존 캐시 삭제)
-        String cacheKey = "product:" + savedProduct.getId();
-        redisTemplate.delete(cacheKey);
-        System.out.println("Product 저장/업데이트 후 캐시(Redis) 무효화: " + cacheKey);
+        // 캐시 무효화 (기존 캐시 삭제) + 인덱스 갱신을 스크립트 하나로
+        productIndexRepository.indexWith(ProductIndexRepository.EVICT_AND_INDEX_SCRIPT, savedProduct,
+                List.of(ProductKeyCodec.PREFIX + savedProduct.getId()));
+        System.out.println("Product 저장/업데이트 후 캐시(Redis) 무효화: product:" + savedProduct.getId());
 
         return savedProduct;
     }
@@ -96,10 +106,10 @@ public class ProductServiceV1 implements ProductService {
     public void deleteProduct(Long id) {
         productRepositoryV1.deleteById(id); // DB(가상)에서 삭제
 
-        // 캐시 무효화 (기존 캐시 삭제)
-        String cacheKey = "product:" + id;
-        redisTemplate.delete(cacheKey);
-        System.out.println("Product 삭제 후 캐시(Redis) 무효화: " + cacheKey);
+        // 캐시 무효화 (기존 캐시 삭제) + 인덱스 제거를 스크립트 하나로
+        productIndexRepository.removeWith(ProductIndexRepository.EVICT_AND_UNINDEX_SCRIPT, id,
+                List.of(ProductKeyCodec.PREFIX + id));
+        System.out.println("Product 삭제 후 캐시(Redis) 무효화: product:" + id);
     }
 
     /**
@@ -117,12 +127,25 @@ public class ProductServiceV1 implements ProductService {
         Product updatedProduct = productRepositoryV1.save(product); // DB(가상)에 업데이트
         System.out.println("ProductServiceV1: 메모리에서 상품 업데이트 중...: " + updatedProduct);
 
-        // 캐시 무효화 (기존 캐시 삭제)
-        String cacheKey = "product:" + updatedProduct.getId();
-        System.out.println("DEBUG: updateProduct에서 캐시 삭제 시도 키: " + cacheKey);
-        redisTemplate.delete(cacheKey);
-        System.out.println("상품 업데이트 후 캐시(Redis) 무효화: " + cacheKey);
+        // 캐시 무효화 (기존 캐시 삭제) + 인덱스 갱신을 스크립트 하나로
+        System.out.println("DEBUG: updateProduct에서 캐시 삭제 시도 키: product:" + updatedProduct.getId());
+        productIndexRepository.indexWith(ProductIndexRepository.EVICT_AND_INDEX_SCRIPT, updatedProduct,
+                List.of(ProductKeyCodec.PREFIX + updatedProduct.getId()));
+        System.out.println("상품 업데이트 후 캐시(Redis) 무효화: product:" + updatedProduct.getId());
 
         return updatedProduct;
     }
+
+    @Override
+    public String cacheKeyFormat() {
+        return "product:{id}";
+    }
+
+    /**
+     * 캐시만 무효화 (라우터가 다른 키 형식의 전략으로 쓴 뒤 호출)
+     */
+    @Override
+    public void evictCache(Long id) {
+        productRedisTemplate.delete(id);
+    }
 }
@@ -1,11 +1,18 @@
 package daiseek.redis_selfstudy.product.service;
 
+import daiseek.redis_selfstudy.config.ProductKeyCodec;
+import daiseek.redis_selfstudy.jfr.CacheOutcomeTracker;
+import daiseek.redis_selfstudy.jfr.CacheOutcomeTracker.Outcome;
 import daiseek.redis_selfstudy.product.Product;
+import daiseek.redis_selfstudy.product.repository.ProductIndexRepository;
 import daiseek.redis_selfstudy.product.repository.ProductRepository;
 import org.springframework.beans.factory.annotation.Qualifier;
 import org.springframework.data.redis.core.RedisTemplate;
+import org.springframework.data.redis.serializer.RedisSerializer;
 import org.springframework.stereotype.Service;
 
+import java.nio.charset.StandardCharsets;
+import java.util.List;
 import java.util.Optional;
 import java.util.concurrent.TimeUnit;
 
@@ -32,13 +39,16 @@ import java.util.concurrent.TimeUnit;
 public class ProductServiceV2 implements ProductService{
 
     private final ProductRepository productRepositoryV1; // 가상 DB 역할
-    private final RedisTemplate<String, Object> redisTemplate;
+    private final RedisTemplate<Long, Object> productRedisTemplate; // 키 = 상품 ID (ProductKeyCodec)
+    private final ProductIndexRepository productIndexRepository; // 가격/이름 보조 인덱스
     private static final long CACHE_TTL_SECONDS = 300; // 5분
 
     public ProductServiceV2(@Qualifier("inMemoryProductRepository") ProductRepository productRepositoryV1,
-                            RedisTemplate<String, Object> redisTemplate) {
+                            RedisTemplate<Long, Object> productRedisTemplate,
+                            ProductIndexRepository productIndexRepository) {
         this.productRepositoryV1 = productRepositoryV1;
-        this.redisTemplate = redisTemplate;
+        this.productRedisTemplate = productRedisTemplate;
+        this.productIndexRepository = productIndexRepository;
     }
 
     /**
@@ -48,19 +58,20 @@ public class ProductServiceV2 implements ProductService{
      */
     @Override
     public Optional<Product> getProductById(Long id) {
-        String cacheKey = "product:" + id;
-        Product cachedProduct = (Product) redisTemplate.opsForValue().get(cacheKey);
+        Product cachedProduct = (Product) productRedisTemplate.opsForValue().get(id);
 
         if (cachedProduct != null) {
             System.out.println("ProductServiceV2: Cache hit for product ID: " + id);
+            CacheOutcomeTracker.record(Outcome.HIT);
             return Optional.of(cachedProduct);
         }
 
         System.out.println("ProductServiceV2: Cache miss for product ID: " + id);
+        CacheOutcomeTracker.record(Outcome.MISS);
         Optional<Product> productOptional = productRepositoryV1.findById(id);
 
         productOptional.ifPresent(product -> {
-            redisTemplate.opsForValue().set(cacheKey, product, CACHE_TTL_SECONDS, TimeUnit.SECONDS);
+            productRedisTemplate.opsForValue().set(id, product, CACHE_TTL_SECONDS, TimeUnit.SECONDS);
             System.out.println("ProductServiceV2: Caching product: " + product);
         });
 
@@ -77,10 +88,9 @@ public class ProductServiceV2 implements ProductService{
         Product savedProduct = productRepositoryV1.save(product);
         System.out.println("ProductServiceV2: Saving/Updating product in DB: " + savedProduct);
 
-        // 2. 캐시에 바로 반영 (Write-Through의 핵심)
-        String cacheKey = "product:" + savedProduct.getId();
-        redisTemplate.opsForValue().set(cacheKey, savedProduct, CACHE_TTL_SECONDS, TimeUnit.SECONDS);
-        System.out.println("ProductServiceV2: Write-Through: Caching product immediately: " + cacheKey);
+        // 2. 캐시에 바로 반영 (Write-Through의 핵심) - 인덱스와 같은 스크립트로
+        cacheAndIndex(savedProduct);
+        System.out.println("ProductServiceV2: Write-Through: Caching product immediately: product:" + savedProduct.getId());
 
         return savedProduct;
     }
@@ -99,10 +109,9 @@ public class ProductServiceV2 implements ProductService{
         Product updatedProduct = productRepositoryV1.save(product);
         System.out.println("ProductServiceV2: Updating product in DB: " + updatedProduct);
 
-        // 2. 캐시에 바로 반영 (Write-Through의 핵심)
-        String cacheKey = "product:" + updatedProduct.getId();
-        redisTemplate.opsForValue().set(cacheKey, updatedProduct, CACHE_TTL_SECONDS, TimeUnit.SECONDS);
-        System.out.println("ProductServiceV2: Write-Through: Caching product immediately after update: " + cacheKey);
+        // 2. 캐시에 바로 반영 (Write-Through의 핵심) - 인덱스와 같은 스크립트로
+        cacheAndIndex(updatedProduct);
+        System.out.println("ProductServiceV2: Write-Through: Caching product immediately after update: product:" + updatedProduct.getId());
 
         return updatedProduct;
     }
@@ -117,9 +126,34 @@ public class ProductServiceV2 implements ProductService{
         productRepositoryV1.deleteById(id);
         System.out.println("ProductServiceV2: Deleting product from DB with ID: " + id);
 
-        // 2. 캐시에서 삭제
-        String cacheKey = "product:" + id;
-        redisTemplate.delete(cacheKey);
-        System.out.println("ProductServiceV2: Deleting from cache: " + cacheKey);
+        // 2. 캐시에서 삭제 + 인덱스에서도 제거 (스크립트 하나)
+        productIndexRepository.removeWith(ProductIndexRepository.EVICT_AND_UNINDEX_SCRIPT, id,
+                List.of(ProductKeyCodec.PREFIX + id));
+        System.out.println("ProductServiceV2: Deleting from cache: product:" + id);
+    }
+
+    /**
+     * 캐시 SET과 인덱스 갱신을 스크립트 하나로 실행한다. (둘 사이에 목록 조회가 끼어들지 않음)
+     * 값은 productRedisTemplate과 같은 직렬화기로 만들어 조회 경로가 그대로 읽을 수 있다.
+     */
+    @SuppressWarnings("unchecked")
+    private void cacheAndIndex(Product product) {
+        byte[] payload = ((RedisSerializer<Object>) productRedisTemplate.getValueSerializer()).serialize(product);
+        productIndexRepository.indexWith(ProductIndexRepository.SET_AND_INDEX_SCRIPT, product,
+                List.of(ProductKeyCodec.PREFIX + product.getId()),
+                payload, Long.toString(CACHE_TTL_SECONDS).getBytes(StandardCharsets.US_ASCII));
+    }
+
+    @Override
+    public String cacheKeyFormat() {
+        return "product:{id}";
+    }
+
+    /**
+     * 캐시만 무효화 (라우터가 다른 키 형식의 전략으로 쓴 뒤 호출)
+     */
+    @Override
+    public void evictCache(Long id) {
+        productRedisTemplate.delete(id);
     }
 }
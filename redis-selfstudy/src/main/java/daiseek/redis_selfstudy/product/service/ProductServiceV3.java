@@ -1,17 +1,30 @@
 package daiseek.redis_selfstudy.product.service;
 
+import daiseek.redis_selfstudy.config.ProductKeyCodec;
+import daiseek.redis_selfstudy.jfr.CacheOutcomeTracker;
+import daiseek.redis_selfstudy.jfr.CacheOutcomeTracker.Outcome;
+import daiseek.redis_selfstudy.jfr.WriteBackEvent;
 import daiseek.redis_selfstudy.product.Product;
+import daiseek.redis_selfstudy.product.repository.ProductIndexRepository;
 import daiseek.redis_selfstudy.product.repository.ProductRepository;
 import jakarta.annotation.PostConstruct;
 import jakarta.annotation.PreDestroy;
+import jdk.jfr.EventType;
 import org.springframework.beans.factory.annotation.Qualifier;
 import org.springframework.data.redis.core.RedisTemplate;
+import org.springframework.data.redis.serializer.RedisSerializer;
 import org.springframework.stereotype.Service;
 
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.List;
 import java.util.Optional;
+import java.util.concurrent.ExecutionException;
 import java.util.concurrent.ExecutorService;
 import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
 import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
 
 
 /**
@@ -59,16 +72,20 @@ import java.util.concurrent.TimeUnit;
 public class ProductServiceV3 implements ProductService{
 
     private final ProductRepository productRepositoryV1; // 가상 DB 역할
-    private final RedisTemplate<String, Object> redisTemplate;
+    private final RedisTemplate<Long, Object> productRedisTemplate; // 키 = 상품 ID (ProductKeyCodec)
+    private final ProductIndexRepository productIndexRepository; // 가격/이름 보조 인덱스
     private static final long CACHE_TTL_SECONDS = 300; // 5분
+    private static final EventType WRITE_BACK_EVENT = EventType.getEventType(WriteBackEvent.class);
 
     // Write-Back을 위한 비동기 처리용 ExecutorService
     private ExecutorService writeBackExecutor;
 
     public ProductServiceV3(@Qualifier("inMemoryProductRepository") ProductRepository productRepositoryV1,
-                            RedisTemplate<String, Object> redisTemplate) {
+                            RedisTemplate<Long, Object> productRedisTemplate,
+                            ProductIndexRepository productIndexRepository) {
         this.productRepositoryV1 = productRepositoryV1;
-        this.redisTemplate = redisTemplate;
+        this.productRedisTemplate = productRedisTemplate;
+        this.productIndexRepository = productIndexRepository;
     }
 
 
@@ -100,19 +117,20 @@ public class ProductServiceV3 implements ProductService{
 
     @Override
     public Optional<Product> getProductById(Long id) {
-        String cacheKey = "product:" + id;
-        Product cachedProduct = (Product) redisTemplate.opsForValue().get(cacheKey);
+        Product cachedProduct = (Product) productRedisTemplate.opsForValue().get(id);
 
         if (cachedProduct != null) {
             System.out.println("ProductServiceV3: Cache hit for product ID: " + id);
+            CacheOutcomeTracker.record(Outcome.HIT);
             return Optional.of(cachedProduct);
         }
 
         System.out.println("ProductServiceV3: Cache miss for product ID: " + id);
+        CacheOutcomeTracker.record(Outcome.MISS);
         Optional<Product> productOptional = productRepositoryV1.findById(id);
 
         productOptional.ifPresent(product -> {
-            redisTemplate.opsForValue().set(cacheKey, product, CACHE_TTL_SECONDS, TimeUnit.SECONDS);
+            productRedisTemplate.opsForValue().set(id, product, CACHE_TTL_SECONDS, TimeUnit.SECONDS);
             System.out.println("ProductServiceV3: Caching product: " + product);
         });
 
@@ -124,20 +142,20 @@ public class ProductServiceV3 implements ProductService{
     @Override
     public Product saveProduct(Product product) {
         // 1. 캐시에 먼저 반영
-        String cacheKey = "product:" + product.getId(); // 새로 생성될 ID일 수도 있음 (null일 경우)
+        // 캐시 키는 상품 ID이므로, 새로 생성될 상품(ID null)은 ID를 먼저 할당받아야 한다.
         // InMemoryProductRepository는 save 시 ID를 할당하므로, 먼저 DB에 저장하여 ID를 받아옴.
         // 실제 Write-Back에서는 DB에 쓰지 않고 캐시 매니저가 직접 ID를 관리하거나 UUID 등을 사용.
         // 여기서는 InMemoryProductRepository의 특성상 먼저 ID를 할당받는 과정을 포함.
         Product savedOrUpdatedProduct = productRepositoryV1.save(product); // 임시 저장하여 ID 확보
-        cacheKey = "product:" + savedOrUpdatedProduct.getId(); // 실제 캐시 키는 할당된 ID 사용
 
-        redisTemplate.opsForValue().set(cacheKey, savedOrUpdatedProduct, CACHE_TTL_SECONDS, TimeUnit.SECONDS);
-        System.out.println("ProductServiceV3: Write-Back: Caching product immediately: " + cacheKey);
+        // 실제 캐시 키는 할당된 ID 사용
+        cacheAndIndex(savedOrUpdatedProduct); // 인덱스는 캐시와 같은 스크립트로 즉시 반영
+        System.out.println("ProductServiceV3: Write-Back: Caching product immediately: product:" + savedOrUpdatedProduct.getId());
 
         // 2. DB에는 비동기적으로 반영
         // 실제 Write-Back은 여기서 큐에 넣거나 더티 플래그를 설정하고 즉시 반환합니다.
         // 여기서는 ExecutorService를 사용하여 비동기 DB 저장을 시뮬레이션합니다.
-        writeBackExecutor.submit(() -> {
+        writeBackExecutor.submit(recorded("save", savedOrUpdatedProduct.getId(), () -> {
             try {
                 // 실제 DB 작업이라고 가정하고 약간의 지연을 줍니다.
                 Thread.sleep(500); // DB 작업 시뮬레이션 지연 (50ms)
@@ -148,7 +166,7 @@ public class ProductServiceV3 implements ProductService{
                 Thread.currentThread().interrupt();
                 System.err.println("ProductServiceV3: Async DB update interrupted for product: " + savedOrUpdatedProduct.getId());
             }
-        });
+        }));
 
         System.out.println("ProductServiceV3: Write-Back: Immediate response after caching.");
         return savedOrUpdatedProduct;
@@ -164,12 +182,11 @@ public class ProductServiceV3 implements ProductService{
         }
 
         // 1. 캐시에 먼저 반영
-        String cacheKey = "product:" + product.getId();
-        redisTemplate.opsForValue().set(cacheKey, product, CACHE_TTL_SECONDS, TimeUnit.SECONDS);
-        System.out.println("ProductServiceV3: Write-Back: Caching product immediately after update: " + cacheKey);
+        cacheAndIndex(product); // 인덱스는 캐시와 같은 스크립트로 즉시 반영
+        System.out.println("ProductServiceV3: Write-Back: Caching product immediately after update: product:" + product.getId());
 
         // 2. DB에는 비동기적으로 반영
-        writeBackExecutor.submit(() -> {
+        writeBackExecutor.submit(recorded("update", product.getId(), () -> {
             try {
                 Thread.sleep(500); // DB 작업 시뮬레이션 지연 (50ms)
                 productRepositoryV1.save(product); // DB에 업데이트
@@ -178,7 +195,7 @@ public class ProductServiceV3 implements ProductService{
                 Thread.currentThread().interrupt();
                 System.err.println("ProductServiceV3: Async DB update interrupted for product: " + product.getId());
             }
-        });
+        }));
 
         System.out.println("ProductServiceV3: Write-Back: Immediate response after caching.");
         return product; // 캐시에 저장된 product 객체를 바로 반환
@@ -192,14 +209,13 @@ public class ProductServiceV3 implements ProductService{
      */
     @Override
     public void deleteProduct(Long id) {
-        String cacheKey = "product:" + id;
-
         // 1. 캐시에서 먼저 삭제
-        redisTemplate.delete(cacheKey);
-        System.out.println("ProductServiceV3: Deleting from cache: " + cacheKey);
+        productIndexRepository.removeWith(ProductIndexRepository.EVICT_AND_UNINDEX_SCRIPT, id,
+                List.of(ProductKeyCodec.PREFIX + id)); // 인덱스는 캐시와 같은 스크립트로 즉시 반영
+        System.out.println("ProductServiceV3: Deleting from cache: product:" + id);
 
         // 2. DB에는 비동기적으로 삭제 요청 (conceptually)
-        writeBackExecutor.submit(() -> {
+        writeBackExecutor.submit(recorded("delete", id, () -> {
             try {
                 Thread.sleep(50); // DB 작업 시뮬레이션 지연
                 productRepositoryV1.deleteById(id);
@@ -208,8 +224,82 @@ public class ProductServiceV3 implements ProductService{
                 Thread.currentThread().interrupt();
                 System.err.println("ProductServiceV3: Async DB delete interrupted for product: " + id);
             }
-        });
+        }));
 
         System.out.println("ProductServiceV3: Write-Back: Immediate response after deleting from cache.");
     }
+
+    /**
+     * 캐시 SET과 인덱스 갱신을 스크립트 하나로 실행한다. (V2와 같은 SET_AND_INDEX_SCRIPT)
+     */
+    @SuppressWarnings("unchecked")
+    private void cacheAndIndex(Product product) {
+        byte[] payload = ((RedisSerializer<Object>) productRedisTemplate.getValueSerializer()).serialize(product);
+        productIndexRepository.indexWith(ProductIndexRepository.SET_AND_INDEX_SCRIPT, product,
+                List.of(ProductKeyCodec.PREFIX + product.getId()),
+                payload, Long.toString(CACHE_TTL_SECONDS).getBytes(StandardCharsets.US_ASCII));
+    }
+
+    /**
+     * JFR: Write-Back 작업을 감싸서 큐 대기 시간과 실행 시간을 WriteBackEvent로 남긴다.
+     * 단일 스레드 Executor라 앞 작업이 밀리면 queueWait가 커진다.
+     * 녹화 중이 아니면 작업을 그대로 돌려준다. (작업마다 래퍼/이벤트 객체를 만들지 않음)
+     */
+    private static Runnable recorded(String operation, Long productId, Runnable task) {
+        if (!WRITE_BACK_EVENT.isEnabled()) {
+            return task;
+        }
+        long enqueuedAt = System.nanoTime();
+        return () -> {
+            WriteBackEvent event = new WriteBackEvent();
+            long startedAt = System.nanoTime();
+            event.begin();
+            try {
+                task.run();
+            } finally {
+                event.end();
+                if (event.shouldCommit()) {
+                    event.operation = operation;
+                    event.productId = productId;
+                    event.queueWait = startedAt - enqueuedAt;
+                    event.commit();
+                }
+            }
+        };
+    }
+
+    @Override
+    public String cacheKeyFormat() {
+        return "product:{id}";
+    }
+
+    /**
+     * 캐시만 무효화 (라우터가 다른 키 형식의 전략으로 쓴 뒤 호출)
+     */
+    @Override
+    public void evictCache(Long id) {
+        productRedisTemplate.delete(id);
+    }
+
+    /**
+     * 아직 DB에 반영되지 않은 Write-Back 작업이 모두 끝날 때까지 기다린다.
+     * 단일 스레드 Executor는 제출 순서대로 실행하므로, 지금 넣은 빈 작업이 끝나면 그 앞의 작업도 모두 끝난 것이다.
+     */
+    @Override
+    public boolean drainPendingWrites(Duration timeout) {
+        Future<?> barrier = writeBackExecutor.submit(() -> { });
+        try {
+            barrier.get(timeout.toMillis(), TimeUnit.MILLISECONDS);
+            System.out.println("ProductServiceV3: 대기 중이던 Write-Back 반영 완료.");
+            return true;
+        } catch (TimeoutException e) {
+            System.err.println("ProductServiceV3: Write-Back 대기 시간 초과 (" + timeout + ").");
+            return false;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return false;
+        } catch (ExecutionException e) {
+            return false; // 빈 작업이라 발생하지 않음
+        }
+    }
 }
@@ -1,20 +1,28 @@
 package daiseek.redis_selfstudy.product.service;
 
 import daiseek.redis_selfstudy.product.Product;
+import daiseek.redis_selfstudy.product.repository.ProductIndexRepository;
 import daiseek.redis_selfstudy.product.repository.ProductRepository;
-import daiseek.redis_selfstudy.product.repository.ProductRepositoryV1;
 import org.springframework.beans.factory.annotation.Qualifier;
 import org.springframework.cache.annotation.CacheEvict;
 import org.springframework.cache.annotation.Cacheable;
-import org.springframework.data.redis.core.RedisTemplate;
+import jakarta.annotation.PreDestroy;
 import org.springframework.stereotype.Service;
 
 import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
 
 
 /**
  * Spring Cache Abstraction - Cache-Aside 전략
  * @Cacheable 애노테이션만 활용
+ *
+ * CacheManager는 RedisConfig.cacheManager (ProductRedisCacheManager)
+ * 1. sync = true: 같은 상품의 동시 캐시 미스는 한 요청만 DB를 조회한다. (캐시 스탬피드 방지)
+ * 2. getProductByIdAsync: CompletableFuture를 반환하므로 캐시 조회/로딩 동안 요청 스레드를 막지 않는다.
+ * 3. @CacheEvict: 동시에 들어온 무효화는 DEL 한 번으로 묶여서 전송된다.
  */
 
 
@@ -23,9 +31,15 @@ import java.util.Optional;
 public class ProductServiceV4 implements ProductService {
 
     private final ProductRepository productRepository;
+    private final ProductIndexRepository productIndexRepository; // 가격/이름 보조 인덱스
+
+    // 비동기 조회 시 DB(메모리) 조회를 수행할 Executor (가상 스레드라서 블로킹 조회여도 부담이 적음)
+    private final ExecutorService asyncLoadExecutor = Executors.newVirtualThreadPerTaskExecutor();
 
-    public ProductServiceV4(@Qualifier("inMemoryProductRepository") ProductRepository productRepository) {
+    public ProductServiceV4(@Qualifier("inMemoryProductRepository") ProductRepository productRepository,
+                            ProductIndexRepository productIndexRepository) {
         this.productRepository = productRepository;
+        this.productIndexRepository = productIndexRepository;
     }
 
     /**
@@ -34,12 +48,30 @@ public class ProductServiceV4 implements ProductService {
      * @return
      */
     @Override
-    @Cacheable(value = "product", key = "#id") // 메서드의 반환 값을 캐시에 저장 혹은 캐시에서 조회하도록 지시
+    @Cacheable(value = "product", keyGenerator = "productKeyGenerator", sync = true) // 메서드의 반환 값을 캐시에 저장 혹은 캐시에서 조회하도록 지시 (키 = 상품 ID, SpEL 평가 없음)
     public Optional<Product> getProductById(Long id) {
         System.out.println("ProductServiceV4: 캐시 미스. DB에서 찾아오기: " + id);
         return productRepository.findById(id); // 캐시에 없을때 DB에서 찾아서 반환해줌
     }
 
+    /**
+     * 비동기 조회 - getProductById와 같은 캐시 항목(product::{id})을 사용한다.
+     * 캐시 히트면 Redis 응답이 오는 즉시 완료되고, 미스면 별도 Executor에서 DB를 조회한다.
+     * @param id : 조회하려는 상품의 아이디
+     * @return : 상품 객체, 없으면 null로 완료
+     */
+    @Override
+    @Cacheable(value = "product", keyGenerator = "productKeyGenerator", sync = true)
+    public CompletableFuture<Product> getProductByIdAsync(Long id) {
+        System.out.println("ProductServiceV4: 비동기 캐시 미스. DB에서 찾아오기: " + id);
+        return CompletableFuture.supplyAsync(() -> productRepository.findById(id).orElse(null), asyncLoadExecutor);
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        asyncLoadExecutor.shutdown();
+    }
+
     /**
      * 저장: 캐시 반영 없음 (Cache-Aside의 특징)
      */
@@ -48,6 +80,7 @@ public class ProductServiceV4 implements ProductService {
     public Product saveProduct(Product product) {
         Product saved = productRepository.save(product);
         System.out.println("DB 저장 후 캐시 무효화 수행: " + saved.getId());
+        productIndexRepository.index(saved);
         return saved;
     }
 
@@ -60,6 +93,7 @@ public class ProductServiceV4 implements ProductService {
         // 검증 로직 생략
         Product updated = productRepository.save(product);
         System.out.println("DB 업데이트 후 캐시 무효화 수행: " + updated.getId());
+        productIndexRepository.index(updated);
         return updated;
     }
 
@@ -67,10 +101,24 @@ public class ProductServiceV4 implements ProductService {
      * 삭제: 캐시 반영 없음 (Cache-Aside의 특징)
      */
     @Override
-    @CacheEvict(value = "product", key = "#id")
+    @CacheEvict(value = "product", keyGenerator = "productKeyGenerator")
     public void deleteProduct(Long id) {
         productRepository.deleteById(id);
         System.out.println("DB 삭제 후 캐시 무효화 수행: " + id);
+        productIndexRepository.remove(id);
+    }
+
+    @Override
+    public String cacheKeyFormat() {
+        return "product::{id}";
+    }
+
+    /**
+     * 캐시만 무효화 (라우터가 다른 키 형식의 전략으로 쓴 뒤 호출, 프록시를 거쳐야 동작)
+     */
+    @Override
+    @CacheEvict(value = "product", keyGenerator = "productKeyGenerator")
+    public void evictCache(Long id) {
     }
 }
 
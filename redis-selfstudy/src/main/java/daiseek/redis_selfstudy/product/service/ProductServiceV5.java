@@ -0,0 +1,273 @@
+package daiseek.redis_selfstudy.product.service;
+
+import daiseek.redis_selfstudy.jfr.CacheOutcomeTracker;
+import daiseek.redis_selfstudy.jfr.CacheOutcomeTracker.Outcome;
+import daiseek.redis_selfstudy.jfr.ProductCacheEvent;
+import daiseek.redis_selfstudy.product.Product;
+import daiseek.redis_selfstudy.product.repository.ProductIndexRepository;
+import daiseek.redis_selfstudy.product.repository.ProductRepository;
+import jdk.jfr.EventType;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.data.redis.core.RedisTemplate;
+import org.springframework.data.redis.core.script.DefaultRedisScript;
+import org.springframework.data.redis.core.script.RedisScript;
+import org.springframework.data.redis.serializer.GenericToStringSerializer;
+import org.springframework.data.redis.serializer.RedisSerializer;
+import org.springframework.stereotype.Service;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.List;
+import java.util.Optional;
+
+
+/**
+ * Note. 버전 기반 Cache-Aside + Write-Through 전략
+ * 캐시 항목마다 저장소가 발급한 단조 증가 버전을 함께 저장한다.
+ * 캐시 채우기/쓰기는 Lua 스크립트로 "들어오는 버전이 더 새로울 때만" 덮어쓴다 (Compare-And-Set).
+ * 삭제 시에는 값을 지우고 버전만 남긴 짧은 수명의 툼스톤(tombstone)을 남긴다.
+ */
+
+/** V1(Cache-Aside)의 문제
+ * 1. 느린 읽기 요청이 DB에서 옛날 Product를 읽음
+ * 2. 그 사이 updateProduct가 DB를 갱신하고 캐시를 DEL
+ * 3. 느린 읽기 요청이 옛날 Product를 SET -> TTL 동안 오래된 데이터가 남는다.
+ * 그래서 TTL을 짧게 가져갈 수밖에 없었고, 히트율이 낮았다.
+ */
+
+/** 장점
+ * 1. 오래된 값이 새 값을 덮어쓰지 못하므로 TTL을 몇 시간 단위로 늘릴 수 있다.
+ * 2. 비교와 쓰기가 Redis 서버 안에서 원자적으로 수행된다.
+ */
+
+/** 단점
+ * 1. 키마다 버전 키가 하나 더 생긴다. (product:{id}:version)
+ * 2. 툼스톤 수명보다 더 오래 걸린 읽기 요청은 여전히 오래된 값을 쓸 수 있다.
+ */
+
+@Service
+@Qualifier("productServiceV5")
+public class ProductServiceV5 implements ProductService {
+
+    private static final Duration CACHE_TTL = Duration.ofHours(6); // 오래된 값 덮어쓰기가 불가능하므로 TTL을 길게 잡는다
+    private static final Duration TOMBSTONE_TTL = Duration.ofSeconds(60); // 삭제 후 느린 읽기 요청을 막아줄 시간
+
+    /**
+     * KEYS[1] = product:{id}, KEYS[2] = product:{id}:version
+     * ARGV[1] = 버전, ARGV[2] = 직렬화된 Product, ARGV[3] = TTL(초)
+     * 저장된 버전보다 오래되지 않았을 때만 값과 버전을 함께 갱신한다. 갱신하면 1, 무시하면 0을 반환한다.
+     * 같은 버전은 다시 채운다. 값만 지워지고 버전 키가 남는 경우(maxmemory 축출, DEL, evictCache)에
+     * 같은 버전을 거절하면 버전 키 TTL 동안 모든 조회가 저장소까지 내려간다. 같은 버전의 값은 같으므로 다시 써도 무해하다.
+     */
+    public static final RedisScript<Long> COMPARE_AND_SET_SCRIPT = new DefaultRedisScript<>("""
+            local current = redis.call('GET', KEYS[2])
+            if current and tonumber(current) > tonumber(ARGV[1]) then
+                return 0
+            end
+            redis.call('SET', KEYS[1], ARGV[2], 'EX', ARGV[3])
+            redis.call('SET', KEYS[2], ARGV[1], 'EX', ARGV[3])
+            return 1
+            """, Long.class);
+
+    /**
+     * 저장/수정용 - COMPARE_AND_SET_SCRIPT와 같은 비교 뒤 가격/이름 인덱스까지 한 번에 갱신한다.
+     * KEYS[1..3] = 인덱스 키 (ProductIndexRepository), KEYS[4] = product:{id}, KEYS[5] = product:{id}:version
+     * ARGV[1..3] = ID, 가격, 이름, ARGV[4] = 버전, ARGV[5] = 직렬화된 Product, ARGV[6] = TTL(초)
+     * 더 새 버전이 이미 있으면 캐시도 인덱스도 건드리지 않는다. (인덱스가 옛 가격/이름으로 되돌아가지 않음)
+     */
+    public static final RedisScript<Long> WRITE_SCRIPT = new DefaultRedisScript<>("""
+            local current = redis.call('GET', KEYS[5])
+            if current and tonumber(current) > tonumber(ARGV[4]) then
+                return 0
+            end
+            redis.call('SET', KEYS[4], ARGV[5], 'EX', ARGV[6])
+            redis.call('SET', KEYS[5], ARGV[4], 'EX', ARGV[6])
+            """ + ProductIndexRepository.INDEX_LUA + """
+            return 1
+            """, Long.class);
+
+    /**
+     * KEYS[1..3] = 인덱스 키 (ProductIndexRepository), KEYS[4] = product:{id}, KEYS[5] = product:{id}:version
+     * ARGV[1] = ID, ARGV[2] = 삭제 버전, ARGV[3] = 툼스톤 TTL(초)
+     * 값을 지우고 삭제 버전만 짧게 남기며, 인덱스에서도 제거한다. 갱신하면 1, 무시하면 0을 반환한다.
+     * 툼스톤은 같은 버전도 거절한다. (이미 같은 삭제가 반영됨)
+     */
+    public static final RedisScript<Long> TOMBSTONE_SCRIPT = new DefaultRedisScript<>("""
+            local current = redis.call('GET', KEYS[5])
+            if current and tonumber(current) >= tonumber(ARGV[2]) then
+                return 0
+            end
+            redis.call('DEL', KEYS[4])
+            redis.call('SET', KEYS[5], ARGV[2], 'EX', ARGV[3])
+            """ + ProductIndexRepository.UNINDEX_LUA + """
+            return 1
+            """, Long.class);
+
+    private static final RedisSerializer<Long> RESULT_SERIALIZER = new GenericToStringSerializer<>(Long.class);
+    private static final EventType EVENT_TYPE = EventType.getEventType(ProductCacheEvent.class);
+
+    private final ProductRepository productRepositoryV1; // 가상 DB 역할
+    private final RedisTemplate<String, Object> redisTemplate;
+    private final ProductIndexRepository productIndexRepository; // 가격/이름 보조 인덱스
+
+    public ProductServiceV5(@Qualifier("inMemoryProductRepository") ProductRepository productRepositoryV1,
+                            RedisTemplate<String, Object> redisTemplate,
+                            ProductIndexRepository productIndexRepository) {
+        this.productRepositoryV1 = productRepositoryV1;
+        this.redisTemplate = redisTemplate;
+        this.productIndexRepository = productIndexRepository;
+    }
+
+    /**
+     * 캐시 조회는 Cache-Aside와 동일하다.
+     * 단, 캐시 미스 후 채우기는 버전 비교 스크립트를 거친다.
+     */
+    @Override
+    public Optional<Product> getProductById(Long id) {
+        String cacheKey = "product:" + id;
+        Product cachedProduct = (Product) redisTemplate.opsForValue().get(cacheKey);
+
+        if (cachedProduct != null) {
+            System.out.println("ProductServiceV5: Cache hit for product ID: " + id);
+            CacheOutcomeTracker.record(Outcome.HIT);
+            return Optional.of(cachedProduct);
+        }
+
+        System.out.println("ProductServiceV5: Cache miss for product ID: " + id);
+        CacheOutcomeTracker.record(Outcome.MISS);
+        Optional<Product> productOptional = productRepositoryV1.findById(id);
+
+        productOptional.ifPresent(product -> {
+            boolean written = compareAndSet(product);
+            System.out.println("ProductServiceV5: Caching product (version " + product.getVersion() + ", "
+                    + (written ? "applied" : "rejected as stale") + "): " + product);
+        });
+
+        return productOptional;
+    }
+
+    /** 상품 생성 (Write-Through + CAS)
+     * DB 저장 시 발급된 버전으로 캐시에 반영합니다.
+     */
+    @Override
+    public Product saveProduct(Product product) {
+        Product savedProduct = productRepositoryV1.save(product);
+        System.out.println("ProductServiceV5: Saving product in DB: " + savedProduct);
+
+        writeAndIndex(savedProduct);
+        return savedProduct;
+    }
+
+    /** 상품 수정 (Write-Through + CAS)
+     * DEL 대신 새 버전으로 덮어쓰므로, 느린 읽기 요청이 옛 버전을 다시 써넣을 수 없습니다.
+     */
+    @Override
+    public Product updateProduct(Product product) {
+        if (product.getId() == null || !productRepositoryV1.findById(product.getId()).isPresent()) {
+            throw new IllegalArgumentException("상품의 아이디 " + product.getId() + " - 해당 아이디의 상품을 찾지 못하였습니다.");
+        }
+
+        Product updatedProduct = productRepositoryV1.save(product);
+        System.out.println("ProductServiceV5: Updating product in DB: " + updatedProduct);
+
+        writeAndIndex(updatedProduct);
+        return updatedProduct;
+    }
+
+    /** 상품 삭제 (툼스톤)
+     * DB에서 삭제 후, 삭제 버전을 담은 툼스톤을 짧게 남깁니다.
+     */
+    @Override
+    public void deleteProduct(Long id) {
+        long deleteVersion = productRepositoryV1.deleteById(id); // 삭제와 원자적으로 발급된 버전
+
+        ProductCacheEvent event = beginEvent();
+        Long result = productIndexRepository.removeWith(TOMBSTONE_SCRIPT, id,
+                List.of("product:" + id, "product:" + id + ":version"),
+                ascii(deleteVersion), ascii(TOMBSTONE_TTL.toSeconds()));
+        commit(event, "tombstone", id, Long.valueOf(1L).equals(result), 0);
+        System.out.println("ProductServiceV5: Tombstone for product " + id + " (version " + deleteVersion + ", "
+                + (Long.valueOf(1L).equals(result) ? "applied" : "rejected as stale") + ")");
+    }
+
+    /**
+     * 쓰기 경로: 버전 비교 + 캐시 쓰기 + 인덱스 갱신을 WRITE_SCRIPT 하나로 실행한다.
+     */
+    @SuppressWarnings("unchecked")
+    private void writeAndIndex(Product product) {
+        long version = product.getVersion() != null ? product.getVersion() : 0L;
+        byte[] payload = ((RedisSerializer<Object>) redisTemplate.getValueSerializer()).serialize(product);
+
+        ProductCacheEvent event = beginEvent();
+        Long result = productIndexRepository.indexWith(WRITE_SCRIPT, product,
+                List.of("product:" + product.getId(), "product:" + product.getId() + ":version"),
+                ascii(version), payload, ascii(CACHE_TTL.toSeconds()));
+        commit(event, "cas", product.getId(), Long.valueOf(1L).equals(result), payload.length);
+    }
+
+    /**
+     * 읽기 경로의 캐시 채우기: 저장된 버전보다 오래되지 않았을 때만 캐시에 쓴다. (인덱스는 건드리지 않음)
+     * @return : 실제로 캐시가 갱신되었는지 여부
+     */
+    @SuppressWarnings("unchecked")
+    private boolean compareAndSet(Product product) {
+        long version = product.getVersion() != null ? product.getVersion() : 0L;
+        byte[] payload = ((RedisSerializer<Object>) redisTemplate.getValueSerializer()).serialize(product);
+
+        ProductCacheEvent event = beginEvent();
+        Long result = redisTemplate.execute(COMPARE_AND_SET_SCRIPT, RedisSerializer.byteArray(), RESULT_SERIALIZER,
+                List.of("product:" + product.getId(), "product:" + product.getId() + ":version"),
+                ascii(version), payload, ascii(CACHE_TTL.toSeconds()));
+        boolean written = Long.valueOf(1L).equals(result);
+        commit(event, "cas", product.getId(), written, payload.length);
+        return written;
+    }
+
+    /**
+     * JFR: 이벤트 시작. 녹화 중이 아니면 null (이벤트 객체를 만들지 않음)
+     */
+    private static ProductCacheEvent beginEvent() {
+        if (!EVENT_TYPE.isEnabled()) {
+            return null;
+        }
+        ProductCacheEvent event = new ProductCacheEvent();
+        event.begin();
+        return event;
+    }
+
+    /**
+     * JFR: 버전 비교 결과 기록 (applied = 반영, stale = 더 새 버전이 있어 무시됨)
+     */
+    private static void commit(ProductCacheEvent event, String operation, Long id, boolean applied, int payloadBytes) {
+        if (event == null) {
+            return;
+        }
+        event.end();
+        if (event.shouldCommit()) {
+            event.strategy = "productServiceV5";
+            event.operation = operation;
+            event.productId = id;
+            event.key = "product:" + id;
+            event.outcome = applied ? "applied" : "stale";
+            event.serializedBytes = payloadBytes;
+            event.commit();
+        }
+    }
+
+    private static byte[] ascii(long value) {
+        return Long.toString(value).getBytes(StandardCharsets.US_ASCII);
+    }
+
+    @Override
+    public String cacheKeyFormat() {
+        return "product:{id}";
+    }
+
+    /**
+     * 캐시만 무효화 (라우터가 다른 키 형식의 전략으로 쓴 뒤 호출)
+     */
+    @Override
+    public void evictCache(Long id) {
+        redisTemplate.delete("product:" + id); // 버전 키는 남겨둠 (이후 채우기도 버전 비교를 거침)
+    }
+}
@@ -0,0 +1,212 @@
+package daiseek.redis_selfstudy.product.service;
+
+import daiseek.redis_selfstudy.jfr.CacheOutcomeTracker;
+import daiseek.redis_selfstudy.jfr.CacheOutcomeTracker.Outcome;
+import daiseek.redis_selfstudy.product.Product;
+import daiseek.redis_selfstudy.product.repository.ProductIndexRepository;
+import daiseek.redis_selfstudy.product.repository.ProductRepository;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.redis.core.RedisCallback;
+import org.springframework.data.redis.core.RedisTemplate;
+import org.springframework.data.redis.core.script.DefaultRedisScript;
+import org.springframework.data.redis.core.script.RedisScript;
+import org.springframework.data.redis.serializer.RedisSerializer;
+import org.springframework.stereotype.Service;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.List;
+import java.util.Optional;
+
+
+/**
+ * Note. 버킷 Hash 저장 방식 (메모리 절약형 Write-Through)
+ * 상품마다 최상위 키(product:{id})를 만들면, 키마다 dictEntry/redisObject/키 문자열/만료 항목이 따로 붙는다.
+ * 상품이 수백만 개가 되면 값보다 이 키 단위 오버헤드가 더 커진다.
+ *
+ * 그래서 상품을 ID 구간(버킷)별 작은 Hash로 묶는다.
+ * - 키: product:b:{id / bucketSize}, 필드: 상품 ID, 값: 압축 JSON (@class 없음, null 필드 생략)
+ * - Hash의 필드 수/값 크기가 hash-max-listpack-entries / hash-max-listpack-value 이하면
+ *   Redis는 listpack(연속된 바이트 배열) 인코딩을 써서 필드당 오버헤드가 거의 없다.
+ *   -> docker-compose의 Redis는 버킷 크기(1000)에 맞춰 1024 / 128로 올려 두었다.
+ * - 대신 listpack 조회는 버킷 안에서 선형 탐색이라, 버킷이 클수록 읽기가 조금 느려진다.
+ *
+ * 만료 방식 (app.bucketed-cache.expiry)
+ * 1. PER_FIELD: 필드마다 HEXPIRE (Redis 7.4+) - 상품별로 정확히 만료
+ * 2. PER_BUCKET: 쓸 때마다 버킷 키 전체에 EXPIRE - 버킷에 쓰기가 이어지는 동안은 필드가 만료되지 않는다.
+ *    쓰기는 Write-Through로 바로 반영되므로 데이터가 틀리지는 않고, 안 쓰는 상품이 더 오래 남을 뿐이다.
+ *
+ * 쓰기는 V2(Write-Through)와 같고, 조회는 Cache-Aside와 같다.
+ */
+@Service
+@Qualifier("productServiceV6")
+public class ProductServiceV6 implements ProductService {
+
+    public enum ExpiryPolicy { PER_FIELD, PER_BUCKET }
+
+    private static final String BUCKET_KEY_PREFIX = "product:b:";
+    private static final Duration CACHE_TTL = Duration.ofMinutes(5);
+    private static final byte[] FIELDS = "FIELDS".getBytes(StandardCharsets.US_ASCII);
+    private static final byte[] ONE = "1".getBytes(StandardCharsets.US_ASCII);
+    private static final byte[] TTL_SECONDS = Long.toString(CACHE_TTL.toSeconds()).getBytes(StandardCharsets.US_ASCII);
+    private static final byte[] EXPIRE_FIELD = "field".getBytes(StandardCharsets.US_ASCII);
+    private static final byte[] EXPIRE_BUCKET = "bucket".getBytes(StandardCharsets.US_ASCII);
+
+    /**
+     * 저장/수정용 - 인덱스 갱신 + 버킷 HSET + 만료를 한 번에 실행한다.
+     * KEYS[1..3] = 인덱스 키 (ProductIndexRepository), KEYS[4] = 버킷 키
+     * ARGV[1..3] = ID(필드), 가격, 이름, ARGV[4] = 직렬화된 Product, ARGV[5] = TTL(초), ARGV[6] = field | bucket
+     */
+    public static final RedisScript<Long> WRITE_SCRIPT = new DefaultRedisScript<>(ProductIndexRepository.INDEX_LUA + """
+            redis.call('HSET', KEYS[4], ARGV[1], ARGV[4])
+            if ARGV[6] == 'field' then
+                redis.call('HEXPIRE', KEYS[4], ARGV[5], 'FIELDS', 1, ARGV[1])
+            else
+                redis.call('EXPIRE', KEYS[4], ARGV[5])
+            end
+            return 1
+            """, Long.class);
+
+    /**
+     * 삭제용 - 인덱스 제거 + 버킷 필드 삭제
+     * KEYS[1..3] = 인덱스 키 (ProductIndexRepository), KEYS[4] = 버킷 키, ARGV[1] = ID(필드)
+     */
+    public static final RedisScript<Long> DELETE_SCRIPT = new DefaultRedisScript<>(ProductIndexRepository.UNINDEX_LUA + """
+            redis.call('HDEL', KEYS[4], ARGV[1])
+            return 1
+            """, Long.class);
+
+    private final ProductRepository productRepositoryV1; // 가상 DB 역할
+    private final RedisTemplate<String, Product> productBucketRedisTemplate; // 키 = 버킷, 필드 = 상품 ID
+    private final ProductIndexRepository productIndexRepository; // 가격/이름 보조 인덱스
+    private final int bucketSize;
+    private final ExpiryPolicy expiryPolicy;
+
+    public ProductServiceV6(@Qualifier("inMemoryProductRepository") ProductRepository productRepositoryV1,
+                            RedisTemplate<String, Product> productBucketRedisTemplate,
+                            ProductIndexRepository productIndexRepository,
+                            @Value("${app.bucketed-cache.bucket-size:1000}") int bucketSize,
+                            @Value("${app.bucketed-cache.expiry:PER_FIELD}") ExpiryPolicy expiryPolicy) {
+        this.productRepositoryV1 = productRepositoryV1;
+        this.productBucketRedisTemplate = productBucketRedisTemplate;
+        this.productIndexRepository = productIndexRepository;
+        this.bucketSize = bucketSize;
+        this.expiryPolicy = expiryPolicy;
+    }
+
+    /**
+     * 상품이 들어가는 버킷 키 (product:b:{id / bucketSize})
+     */
+    public String bucketKey(Long id) {
+        return BUCKET_KEY_PREFIX + Math.floorDiv(id, bucketSize);
+    }
+
+    /**
+     * 조회 - Cache-Aside (HGET 한 번)
+     */
+    @Override
+    public Optional<Product> getProductById(Long id) {
+        Product cachedProduct = (Product) productBucketRedisTemplate.opsForHash().get(bucketKey(id), id);
+
+        if (cachedProduct != null) {
+            System.out.println("ProductServiceV6: Cache hit for product ID: " + id);
+            CacheOutcomeTracker.record(Outcome.HIT);
+            return Optional.of(cachedProduct);
+        }
+
+        System.out.println("ProductServiceV6: Cache miss for product ID: " + id);
+        CacheOutcomeTracker.record(Outcome.MISS);
+        Optional<Product> productOptional = productRepositoryV1.findById(id);
+        productOptional.ifPresent(this::cache);
+        return productOptional;
+    }
+
+    /** 상품 생성 (Write-Through)
+     * DB 저장 후 버킷에 바로 반영합니다.
+     */
+    @Override
+    public Product saveProduct(Product product) {
+        Product savedProduct = productRepositoryV1.save(product);
+        cacheAndIndex(savedProduct);
+        System.out.println("ProductServiceV6: Write-Through: Caching product in bucket " + bucketKey(savedProduct.getId()));
+        return savedProduct;
+    }
+
+    /** 상품 수정 (Write-Through)
+     */
+    @Override
+    public Product updateProduct(Product product) {
+        if (product.getId() == null || !productRepositoryV1.findById(product.getId()).isPresent()) {
+            throw new IllegalArgumentException("상품의 아이디 " + product.getId() + " - 해당 아이디의 상품을 찾지 못하였습니다.");
+        }
+
+        Product updatedProduct = productRepositoryV1.save(product);
+        cacheAndIndex(updatedProduct);
+        System.out.println("ProductServiceV6: Write-Through: Caching product in bucket after update " + bucketKey(updatedProduct.getId()));
+        return updatedProduct;
+    }
+
+    /** 상품 삭제
+     * DB에서 삭제 후 버킷에서 필드만 지웁니다. (버킷의 마지막 필드면 Redis가 키도 지움)
+     * 인덱스 제거와 같은 스크립트로 실행합니다.
+     */
+    @Override
+    public void deleteProduct(Long id) {
+        productRepositoryV1.deleteById(id);
+        productIndexRepository.removeWith(DELETE_SCRIPT, id, List.of(bucketKey(id)));
+        System.out.println("ProductServiceV6: Deleting from bucket " + bucketKey(id) + ": " + id);
+    }
+
+    @Override
+    public String cacheKeyFormat() {
+        return "product:b:{id/" + bucketSize + "} {id}";
+    }
+
+    @Override
+    public String cacheKey(Long id) {
+        return bucketKey(id) + " " + id;
+    }
+
+    /**
+     * 캐시만 무효화 (라우터가 다른 키 형식의 전략으로 쓴 뒤 호출)
+     */
+    @Override
+    public void evictCache(Long id) {
+        productBucketRedisTemplate.opsForHash().delete(bucketKey(id), id);
+    }
+
+    /**
+     * 쓰기 경로: WRITE_SCRIPT로 인덱스와 버킷을 한 번에 갱신한다.
+     * 필드는 ARGV[1](ID 10진수 문자열)로 쓰므로 해시 키 직렬화기(GenericToStringSerializer)와 같은 바이트다.
+     */
+    @SuppressWarnings("unchecked")
+    private void cacheAndIndex(Product product) {
+        byte[] value = ((RedisSerializer<Product>) productBucketRedisTemplate.getHashValueSerializer()).serialize(product);
+        productIndexRepository.indexWith(WRITE_SCRIPT, product, List.of(bucketKey(product.getId())),
+                value, TTL_SECONDS, expiryPolicy == ExpiryPolicy.PER_FIELD ? EXPIRE_FIELD : EXPIRE_BUCKET);
+    }
+
+    /**
+     * 읽기 경로의 캐시 채우기: 버킷에 쓰고 만료를 건다. HSET과 만료 명령은 파이프라인으로 한 번에 보낸다.
+     * HSET은 덮어쓴 필드의 만료를 지우므로 PER_FIELD는 쓸 때마다 HEXPIRE를 다시 건다.
+     * (HEXPIRE는 Spring Data Redis 버전에 따라 전용 API가 없어서 execute로 직접 보냄)
+     * 저장소와 인덱스는 건드리지 않는다. (FastStartRunner가 예열용 상품을 넣을 때도 사용)
+     */
+    @SuppressWarnings("unchecked")
+    public void cache(Product product) {
+        byte[] key = ((RedisSerializer<String>) productBucketRedisTemplate.getKeySerializer()).serialize(bucketKey(product.getId()));
+        byte[] field = ((RedisSerializer<Long>) productBucketRedisTemplate.getHashKeySerializer()).serialize(product.getId());
+        byte[] value = ((RedisSerializer<Product>) productBucketRedisTemplate.getHashValueSerializer()).serialize(product);
+
+        productBucketRedisTemplate.executePipelined((RedisCallback<Object>) connection -> {
+            connection.hashCommands().hSet(key, field, value);
+            if (expiryPolicy == ExpiryPolicy.PER_FIELD) {
+                connection.execute("HEXPIRE", key, TTL_SECONDS, FIELDS, ONE, field);
+            } else {
+                connection.keyCommands().expire(key, CACHE_TTL.toSeconds());
+            }
+            return null;
+        });
+    }
+}
@@ -0,0 +1,176 @@
+package daiseek.redis_selfstudy.product.service;
+
+import daiseek.redis_selfstudy.product.ProductViewRank;
+import jakarta.annotation.PreDestroy;
+import org.springframework.data.redis.connection.StringRedisConnection;
+import org.springframework.data.redis.core.RedisCallback;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.core.ZSetOperations;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Note. 인기 상품(조회수) 리더보드
+ * 조회할 때마다 ZINCRBY를 보내면 가장 뜨거운 읽기 경로의 Redis 트래픽이 두 배가 된다.
+ * 그래서 조회수는 인스턴스 메모리에서 먼저 모으고, 주기적으로 한 번에 Redis로 보낸다.
+ *
+ * 1. 집계: ConcurrentHashMap<상품 ID, LongAdder>
+ *    - LongAdder는 내부적으로 셀을 여러 개로 나눠(striped) 경합 없이 증가시킨다. 락이 없다.
+ * 2. flush: 1초마다 sumThenReset()으로 값을 꺼내, 파이프라인 한 번으로 ZINCRBY 묶음을 전송
+ *    - 키는 분 단위 버킷: product:views:{epochMinute}
+ *    - 전송에 실패하면(Redis 장애 등) 꺼낸 값을 다시 더해 두고 다음 flush에서 재시도한다.
+ *    - IDLE_FLUSHES_BEFORE_REMOVAL번 연속으로 조회가 없던 상품은 맵에서 뺀다. (삭제된 상품까지 계속 순회하지 않도록)
+ *      뺀 엔트리에는 retired 표시를 한다. 뺀 엔트리를 이미 잡고 있던 조회 스레드는 증가 후 표시를 보고
+ *      남은 값을 맵의 새 엔트리로 옮긴다. 그래서 제거와 겹친 조회도 사라지지 않는다.
+ * 3. 조회: 최근 K개 버킷을 ZUNIONSTORE로 합쳐 슬라이딩 윈도우 Top-N을 만든다.
+ *    - 합산 결과(product:views:top:{window})는 TOP_TTL 동안 그대로 재사용한다.
+ */
+@Service
+public class ProductViewCounter {
+
+    private static final String BUCKET_KEY_PREFIX = "product:views:";
+    private static final String TOP_KEY_PREFIX = "product:views:top:";
+    private static final int MAX_WINDOW_MINUTES = 60;
+    private static final Duration BUCKET_TTL = Duration.ofMinutes(MAX_WINDOW_MINUTES + 1); // 가장 긴 윈도우보다 조금 더 보관
+    private static final Duration TOP_TTL = Duration.ofSeconds(10); // 합산 결과 재사용 시간 (순위가 이만큼 늦게 반영될 수 있음)
+    private static final int IDLE_FLUSHES_BEFORE_REMOVAL = 60; // 1분 동안 조회가 없으면 맵에서 제거
+
+    /**
+     * 상품 하나의 미반영 조회수
+     * idleFlushes는 flush 스레드에서만 읽고 쓴다.
+     * retired는 flush 스레드가 맵에서 뺀 뒤 켠다. 이후 이 엔트리에 더해진 값은 더한 스레드가 직접 옮긴다.
+     */
+    private static final class PendingViews {
+        private final LongAdder views = new LongAdder();
+        private int idleFlushes;
+        private volatile boolean retired;
+    }
+
+    private final ConcurrentHashMap<Long, PendingViews> pendingViews = new ConcurrentHashMap<>();
+    private final StringRedisTemplate stringRedisTemplate;
+
+    public ProductViewCounter(StringRedisTemplate stringRedisTemplate) {
+        this.stringRedisTemplate = stringRedisTemplate;
+    }
+
+    /**
+     * 조회수 1 증가 (읽기 경로에서 호출, Redis 호출 없음)
+     */
+    public void recordView(Long productId) {
+        add(productId, 1);
+    }
+
+    /**
+     * 조회수를 맵의 엔트리에 더한다. (recordView, flush 실패 시 되돌리기에서 공용)
+     * 더한 엔트리가 이미 retired면 flush의 마지막 sumThenReset이 이 값을 놓쳤을 수 있다.
+     * 그래서 남은 값을 꺼내 맵의 현재 엔트리에 다시 더한다.
+     * sumThenReset은 셀마다 getAndSet이므로 flush 스레드와 동시에 꺼내도 같은 증가분이 두 번 꺼내지지 않는다.
+     */
+    private void add(Long productId, long views) {
+        long remaining = views;
+        while (remaining != 0) {
+            PendingViews pending = pendingViews.get(productId); // 이미 있는 키는 락 없이 바로 가져옴
+            if (pending == null) {
+                pending = pendingViews.computeIfAbsent(productId, id -> new PendingViews());
+            }
+            pending.views.add(remaining);
+            remaining = pending.retired ? pending.views.sumThenReset() : 0;
+        }
+    }
+
+    /**
+     * 모아둔 조회수를 현재 분 버킷에 파이프라인으로 반영한다.
+     * 오래 조회가 없던 엔트리는 remove(key, value)로 지운 뒤 retired를 켜고, 남은 값을 한 번 더 꺼내 맵에 되돌린다.
+     * retired를 켠 뒤에 더해진 값은 add()가 직접 옮긴다.
+     */
+    @Scheduled(fixedDelay = 1000)
+    public void flush() {
+        Map<Long, Long> batch = new HashMap<>();
+        pendingViews.forEach((productId, pending) -> {
+            long views = pending.views.sumThenReset();
+            if (views > 0) {
+                pending.idleFlushes = 0;
+                batch.put(productId, views);
+            } else if (++pending.idleFlushes >= IDLE_FLUSHES_BEFORE_REMOVAL && pendingViews.remove(productId, pending)) {
+                pending.retired = true;
+                long lateViews = pending.views.sumThenReset();
+                if (lateViews > 0) {
+                    add(productId, lateViews);
+                }
+            }
+        });
+        if (batch.isEmpty()) {
+            return;
+        }
+
+        String bucketKey = bucketKey(currentMinute());
+        try {
+            stringRedisTemplate.executePipelined((RedisCallback<Object>) connection -> {
+                StringRedisConnection stringConnection = (StringRedisConnection) connection;
+                batch.forEach((productId, views) -> stringConnection.zIncrBy(bucketKey, views, String.valueOf(productId)));
+                stringConnection.expire(bucketKey, BUCKET_TTL.toSeconds());
+                return null;
+            });
+        } catch (RuntimeException e) {
+            // 꺼낸 조회수를 되돌려 두고 다음 flush에서 다시 보낸다.
+            batch.forEach(this::add);
+            System.err.println("ProductViewCounter: 조회수 flush 실패, 다음 주기에 재시도. 상품 수: " + batch.size() + ", 원인: " + e);
+            return;
+        }
+        System.out.println("ProductViewCounter: 조회수 flush 완료. 버킷: " + bucketKey + ", 상품 수: " + batch.size());
+    }
+
+    /**
+     * 최근 windowMinutes 분 동안 가장 많이 조회된 상품 Top-N
+     */
+    public List<ProductViewRank> topProducts(int limit, int windowMinutes) {
+        int window = Math.min(Math.max(windowMinutes, 1), MAX_WINDOW_MINUTES);
+        long currentMinute = currentMinute();
+
+        String topKey = TOP_KEY_PREFIX + window;
+        Long remainingMillis = stringRedisTemplate.getExpire(topKey, TimeUnit.MILLISECONDS);
+        if (remainingMillis == null || remainingMillis <= 0) { // 없음(-2) 또는 만료 없음(-1)이면 새로 합산
+            List<String> otherKeys = new ArrayList<>(window - 1);
+            for (int i = 1; i < window; i++) {
+                otherKeys.add(bucketKey(currentMinute - i));
+            }
+            stringRedisTemplate.opsForZSet().unionAndStore(bucketKey(currentMinute), otherKeys, topKey);
+            stringRedisTemplate.expire(topKey, TOP_TTL);
+        }
+
+        Set<ZSetOperations.TypedTuple<String>> tuples =
+                stringRedisTemplate.opsForZSet().reverseRangeWithScores(topKey, 0, Math.max(limit, 1) - 1);
+        List<ProductViewRank> ranks = new ArrayList<>();
+        if (tuples != null) {
+            for (ZSetOperations.TypedTuple<String> tuple : tuples) {
+                long views = tuple.getScore() != null ? tuple.getScore().longValue() : 0L;
+                ranks.add(new ProductViewRank(Long.valueOf(tuple.getValue()), views));
+            }
+        }
+        return ranks;
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        // 종료 전 남은 조회수 반영
+        flush();
+    }
+
+    private static long currentMinute() {
+        return System.currentTimeMillis() / 60_000;
+    }
+
+    private static String bucketKey(long epochMinute) {
+        return BUCKET_KEY_PREFIX + epochMinute;
+    }
+}
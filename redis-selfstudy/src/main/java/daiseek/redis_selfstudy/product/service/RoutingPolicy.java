@@ -0,0 +1,142 @@
+package daiseek.redis_selfstudy.product.service;
+
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * ProductServiceRouter의 전략 선택 정책
+ * 전략 이름은 ProductService 빈 이름이다. (productServiceV1 ~ productServiceV4 ...)
+ *
+ * 1. Global: 모든 요청을 한 전략으로
+ * 2. PercentageSplit: 요청마다 가중치 비율로 무작위 선택 (같은 상품도 요청마다 다른 전략으로 갈 수 있음)
+ * 3. HashOfId: 상품 ID 해시로 선택 (같은 상품은 항상 같은 전략 -> 전략별 캐시 히트율 비교가 공정함)
+ *
+ * 상품 ID가 없는 요청(새 상품 저장)은 Global이 아니면 무작위로 고른다.
+ */
+public sealed interface RoutingPolicy {
+
+    /**
+     * @param productId : 요청의 상품 아이디 (새 상품 저장이면 null)
+     * @return : 요청을 처리할 전략 이름
+     */
+    String select(Long productId);
+
+    /**
+     * @return : 이 정책에서 트래픽을 받는 전략 이름들
+     */
+    Set<String> strategies();
+
+    String describe();
+
+    record Global(String strategy) implements RoutingPolicy {
+
+        @Override
+        public String select(Long productId) {
+            return strategy;
+        }
+
+        @Override
+        public Set<String> strategies() {
+            return Set.of(strategy);
+        }
+
+        @Override
+        public String describe() {
+            return "global(" + strategy + ")";
+        }
+    }
+
+    /**
+     * @param weights : 전략 이름 -> 비율(%), 합계 100
+     */
+    record PercentageSplit(Map<String, Integer> weights) implements RoutingPolicy {
+
+        public PercentageSplit {
+            // Map.copyOf는 null 키/값에 NullPointerException을 던지므로(요청 본문이면 500) 복사 전에 검사한다.
+            if (weights == null) {
+                throw new IllegalArgumentException("비율이 없습니다.");
+            }
+            int total = 0;
+            for (Map.Entry<String, Integer> entry : weights.entrySet()) {
+                if (entry.getKey() == null || entry.getValue() == null) {
+                    throw new IllegalArgumentException("전략 이름과 비율은 비어 있을 수 없습니다: " + weights);
+                }
+                if (entry.getValue() < 0) {
+                    throw new IllegalArgumentException("비율은 0 이상이어야 합니다: " + weights);
+                }
+                total += entry.getValue();
+            }
+            weights = Map.copyOf(weights); // 불변 복사 (호출한 쪽이 맵을 바꿔도 정책이 바뀌지 않도록)
+            if (total != 100) {
+                throw new IllegalArgumentException("비율의 합은 100이어야 합니다: " + weights);
+            }
+        }
+
+        @Override
+        public String select(Long productId) {
+            int point = ThreadLocalRandom.current().nextInt(100);
+            String selected = null;
+            for (Map.Entry<String, Integer> entry : weights.entrySet()) {
+                selected = entry.getKey();
+                point -= entry.getValue();
+                if (point < 0) {
+                    break;
+                }
+            }
+            return selected;
+        }
+
+        @Override
+        public Set<String> strategies() {
+            Set<String> strategies = new LinkedHashSet<>();
+            weights.forEach((strategy, weight) -> {
+                if (weight > 0) {
+                    strategies.add(strategy);
+                }
+            });
+            return strategies;
+        }
+
+        @Override
+        public String describe() {
+            return "split" + new TreeMap<>(weights); // Map.copyOf는 순서가 없으므로 이름순으로 출력
+        }
+    }
+
+    /**
+     * @param buckets : 해시 값으로 고를 전략 이름들 (같은 이름을 여러 번 넣으면 비율이 늘어남)
+     */
+    record HashOfId(List<String> buckets) implements RoutingPolicy {
+
+        public HashOfId {
+            if (buckets.isEmpty()) {
+                throw new IllegalArgumentException("전략을 하나 이상 지정해야 합니다.");
+            }
+            buckets = List.copyOf(buckets);
+        }
+
+        @Override
+        public String select(Long productId) {
+            if (productId == null) {
+                return buckets.get(ThreadLocalRandom.current().nextInt(buckets.size()));
+            }
+            // 연속된 ID가 한 전략에 몰리지 않도록 섞은 뒤 나눔
+            long mixed = productId * 0x9E3779B97F4A7C15L;
+            return buckets.get(Math.floorMod(Long.hashCode(mixed ^ (mixed >>> 29)), buckets.size()));
+        }
+
+        @Override
+        public Set<String> strategies() {
+            return new LinkedHashSet<>(buckets);
+        }
+
+        @Override
+        public String describe() {
+            return "hash" + buckets;
+        }
+    }
+}
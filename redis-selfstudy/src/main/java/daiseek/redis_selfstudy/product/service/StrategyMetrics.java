@@ -0,0 +1,109 @@
+package daiseek.redis_selfstudy.product.service;
+
+import daiseek.redis_selfstudy.jfr.CacheOutcomeTracker.Outcome;
+import daiseek.redis_selfstudy.product.StrategyStats;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * 전략 하나의 요청 집계 (ProductServiceRouter 전용)
+ * 모든 카운터는 LongAdder라서 요청 경로에 락이 없다.
+ * 지연은 2의 거듭제곱 구간(log2 히스토그램)으로 센다. 백분위는 구간 상한으로 보고하므로 최대 2배까지 크게 나온다.
+ */
+class StrategyMetrics {
+
+    private static final int BUCKETS = 64;
+
+    private final String strategy;
+    private final LongAdder requests = new LongAdder();
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+    private final LongAdder errors = new LongAdder();
+    private final LongAdder inFlight = new LongAdder();
+    private final LongAdder[] latencyBuckets = new LongAdder[BUCKETS];
+
+    StrategyMetrics(String strategy) {
+        this.strategy = strategy;
+        for (int i = 0; i < BUCKETS; i++) {
+            latencyBuckets[i] = new LongAdder();
+        }
+    }
+
+    void enter() {
+        inFlight.increment();
+    }
+
+    void exit() {
+        inFlight.decrement();
+    }
+
+    long inFlight() {
+        return inFlight.sum();
+    }
+
+    void recordWrite() {
+        requests.increment();
+    }
+
+    /**
+     * @param outcome : 전략이 기록한 캐시 결과. null이면 알 수 없는 조회 (비동기 조회, 결과를 기록하지 않는 전략)
+     *                  SHARED(다른 요청의 로딩을 기다림)는 캐시에서 바로 나오지 않았으므로 미스로 센다.
+     */
+    void recordRead(long elapsedNanos, Outcome outcome) {
+        requests.increment();
+        if (outcome != null) {
+            (outcome == Outcome.HIT ? hits : misses).increment();
+        }
+        latencyBuckets[bucketOf(elapsedNanos)].increment();
+    }
+
+    void recordError() {
+        requests.increment();
+        errors.increment();
+    }
+
+    void reset() {
+        requests.reset();
+        hits.reset();
+        misses.reset();
+        errors.reset();
+        for (LongAdder bucket : latencyBuckets) {
+            bucket.reset();
+        }
+    }
+
+    StrategyStats snapshot() {
+        long[] counts = new long[BUCKETS];
+        long total = 0;
+        for (int i = 0; i < BUCKETS; i++) {
+            counts[i] = latencyBuckets[i].sum();
+            total += counts[i];
+        }
+        long hitCount = hits.sum();
+        long missCount = misses.sum();
+        double hitRatio = hitCount + missCount == 0 ? 0 : (double) hitCount / (hitCount + missCount);
+        return new StrategyStats(strategy, requests.sum(), hitCount, missCount, hitRatio, errors.sum(), inFlight.sum(),
+                percentileMicros(counts, total, 0.50), percentileMicros(counts, total, 0.99));
+    }
+
+    private static int bucketOf(long nanos) {
+        return 63 - Long.numberOfLeadingZeros(Math.max(nanos, 1)); // [2^i, 2^(i+1)) 구간
+    }
+
+    private static long percentileMicros(long[] counts, long total, double quantile) {
+        if (total == 0) {
+            return 0;
+        }
+        long rank = (long) Math.ceil(quantile * total);
+        long seen = 0;
+        for (int i = 0; i < BUCKETS; i++) {
+            seen += counts[i];
+            if (seen >= rank) {
+                long upperNanos = i >= 62 ? Long.MAX_VALUE : 1L << (i + 1);
+                return TimeUnit.NANOSECONDS.toMicros(upperNanos);
+            }
+        }
+        return 0;
+    }
+}